@@ -0,0 +1,143 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.api.managed.ManagedShaderEffect;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Registry cost of {@link ReloadableShaderEffectManager}: {@code manage}/{@code dispose}
+ * churn through the command queue and the reload fan-out over every managed effect.
+ *
+ * <p>Nothing touches the GPU – this measures the bookkeeping a reload or a config toggle
+ * pays. For the fan-out, every effect first adopts a stub chain through the processor
+ * cache, as a parked effect would, so the reload releases a loaded chain per effect; closing
+ * the stub processor is a no-op. There is no render thread here, so every call is queued and
+ * the benchmark drains the queue itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EffectRegistryBenchmark {
+
+    private static final Identifier EFFECT = Identifier.of("jello", "bench");
+
+    @State(Scope.Benchmark)
+    public static class Registry {
+
+        @Param({"10", "100", "500"})
+        public int effects;
+
+        final List<ManagedShaderEffect> live = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < effects; i++) {
+                live.add(ReloadableShaderEffectManager.INSTANCE.manage(Identifier.of("jello", "bench_" + i)));
+            }
+            ReloadableShaderEffectManager.INSTANCE.drainCommands();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            for (ManagedShaderEffect effect : live) {
+                ReloadableShaderEffectManager.INSTANCE.dispose(effect);
+            }
+            ReloadableShaderEffectManager.INSTANCE.drainCommands();
+            live.clear();
+        }
+    }
+
+    /** Effects for the reload fan-out, each given a loaded chain before every reload. */
+    @State(Scope.Benchmark)
+    public static class Loaded {
+
+        /** Hundreds per invocation, so per-invocation setup and timestamps are noise. */
+        @Param({"250", "1000"})
+        public int loadedEffects;
+
+        final List<ManagedShaderEffectImpl> live = new ArrayList<>();
+        /**
+         * Stands in for a loaded processor. It has no public constructor and its factory
+         * needs a GPU device, so it is allocated bare; with {@link LoadedChain#closer}
+         * replaced, none of its methods ever run.
+         */
+        private PostEffectProcessor processor;
+        private Consumer<PostEffectProcessor> closer;
+
+        @Setup(Level.Trial)
+        public void setUp() throws ReflectiveOperationException {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            processor = (PostEffectProcessor) ((Unsafe) field.get(null)).allocateInstance(PostEffectProcessor.class);
+            closer = LoadedChain.closer;
+            LoadedChain.closer = p -> {};
+            for (int i = 0; i < loadedEffects; i++) {
+                live.add((ManagedShaderEffectImpl) ReloadableShaderEffectManager.INSTANCE.manage(
+                    Identifier.of("jello", "loaded_" + i)));
+            }
+            ReloadableShaderEffectManager.INSTANCE.drainCommands();
+        }
+
+        // Per invocation because a reload leaves every effect unloaded.
+        @Setup(Level.Invocation)
+        public void load() {
+            ProcessorCache cache = ReloadableShaderEffectManager.INSTANCE.getProcessorCache();
+            for (ManagedShaderEffectImpl effect : live) {
+                LoadedChain chain = new LoadedChain(processor, UniformBlockLayout.EMPTY, PassGraph.EMPTY,
+                    List.of(), ChainRewrite.NONE, TargetFormats.NONE, null);
+                cache.put(effect.getLocation(), chain, 0L);
+                effect.getShaderEffect();   // adopts the parked chain
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            for (ManagedShaderEffect effect : live) {
+                ReloadableShaderEffectManager.INSTANCE.dispose(effect);
+            }
+            ReloadableShaderEffectManager.INSTANCE.drainCommands();
+            live.clear();
+            LoadedChain.closer = closer;
+        }
+    }
+
+    @Benchmark
+    public ManagedShaderEffect manageDispose(Registry registry) {
+        ManagedShaderEffect effect = ReloadableShaderEffectManager.INSTANCE.manage(EFFECT);
+        ReloadableShaderEffectManager.INSTANCE.dispose(effect);
+        ReloadableShaderEffectManager.INSTANCE.drainCommands();
+        return effect;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ManagedShaderEffect manageDisposeContended(Registry registry) {
+        ManagedShaderEffect effect = ReloadableShaderEffectManager.INSTANCE.manage(EFFECT);
+        ReloadableShaderEffectManager.INSTANCE.dispose(effect);
+        ReloadableShaderEffectManager.INSTANCE.drainCommands();
+        return effect;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void reloadFanOut(Loaded loaded) {
+        ReloadableShaderEffectManager.INSTANCE.onWorldRendererReload();
+    }
+}
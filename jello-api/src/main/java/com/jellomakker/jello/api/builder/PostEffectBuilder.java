@@ -0,0 +1,308 @@
+package com.jellomakker.jello.api.builder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.jellomakker.jello.api.managed.ManagedShaderEffect;
+import com.jellomakker.jello.api.managed.ShaderEffectManager;
+import com.jellomakker.jello.api.managed.TargetFormat;
+import com.jellomakker.jello.impl.BuiltEffectRegistry;
+import net.minecraft.util.Identifier;
+import org.joml.Matrix4fc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Declares a post-effect chain in code instead of a {@code post_effect/*.json} file.
+ *
+ * <p>The resulting definition is handed to Minecraft's shader loader on every resource
+ * reload exactly as if it had been read from a resource pack, so the returned
+ * {@link ManagedShaderEffect} reloads, resizes and caches like any other. Build your
+ * effects during client initialization, before the first resource load finishes.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * ManagedShaderEffect blur = PostEffectBuilder.create(Identifier.of("mymod", "blur"))
+ *     .target("swap")
+ *     .pass(Identifier.of("minecraft", "post/blur"), pass -> pass
+ *         .input("In", "minecraft:main")
+ *         .output("swap")
+ *         .uniform("BlurConfig", "BlurDir", 1.0f, 0.0f)
+ *         .uniform("BlurConfig", "Radius", 5.0f))
+ *     .pass(Identifier.of("minecraft", "post/blur"), pass -> pass
+ *         .input("In", "swap")
+ *         .output("minecraft:main")
+ *         .uniform("BlurConfig", "BlurDir", 0.0f, 1.0f)
+ *         .uniform("BlurConfig", "Radius", 5.0f))
+ *     .build();
+ * }</pre>
+ *
+ * <p>Passes that share a vertex shader, fragment shader, samplers and uniform blocks share
+ * one compiled program, across variants and across effects.
+ */
+public final class PostEffectBuilder {
+
+    /** Vertex shader used when a pass does not specify one. */
+    public static final Identifier DEFAULT_VERTEX_SHADER = Identifier.of("minecraft", "core/screenquad");
+
+    private final Identifier id;
+    private final JsonObject targets = new JsonObject();
+    private final JsonArray passes = new JsonArray();
+
+    private PostEffectBuilder(Identifier id) {
+        this.id = id;
+    }
+
+    /**
+     * Starts a new effect definition.
+     *
+     * @param id the effect id, as it would be passed to {@link ShaderEffectManager#manage(Identifier)}
+     */
+    public static PostEffectBuilder create(Identifier id) {
+        return new PostEffectBuilder(id);
+    }
+
+    // ── Targets ───────────────────────────────────────────────────────────────
+
+    /** Declares a screen-sized target whose contents are discarded after each frame. */
+    public PostEffectBuilder target(String name) {
+        targets.add(name, new JsonObject());
+        return this;
+    }
+
+    /** Declares a screen-sized target whose contents survive between frames. */
+    public PostEffectBuilder persistentTarget(String name) {
+        JsonObject target = new JsonObject();
+        target.addProperty("persistent", true);
+        targets.add(name, target);
+        return this;
+    }
+
+    /**
+     * Declares a target at a fraction of the screen size whose contents are discarded after
+     * each frame. Sample it with {@code bilinear} inputs to upsample into a full-size target.
+     *
+     * @param scale in {@code (0, 1]}, e.g. {@code 0.5f} for half width and half height
+     */
+    public PostEffectBuilder scaledTarget(String name, float scale) {
+        targets.add(name, scaled(scale));
+        return this;
+    }
+
+    /** Declares a target at a fraction of the screen size whose contents survive between frames. */
+    public PostEffectBuilder persistentScaledTarget(String name, float scale) {
+        JsonObject target = scaled(scale);
+        target.addProperty("persistent", true);
+        targets.add(name, target);
+        return this;
+    }
+
+    private static JsonObject scaled(float scale) {
+        if (!(scale > 0.0f && scale <= 1.0f)) {
+            throw new IllegalArgumentException("Target scale must be in (0, 1]: " + scale);
+        }
+        JsonObject target = new JsonObject();
+        if (scale != 1.0f) target.addProperty("scale", scale);
+        return target;
+    }
+
+    /** Declares a fixed-size target whose contents are discarded after each frame. */
+    public PostEffectBuilder target(String name, int width, int height) {
+        JsonObject target = new JsonObject();
+        target.addProperty("width", width);
+        target.addProperty("height", height);
+        targets.add(name, target);
+        return this;
+    }
+
+    /**
+     * Sets the colour format of a target declared earlier. Formats apply to persistent
+     * targets; transient ones stay {@link TargetFormat#RGBA8}.
+     */
+    public PostEffectBuilder format(String name, TargetFormat format) {
+        if (!targets.has(name)) {
+            throw new IllegalStateException("Target " + name + " of " + id + " is not declared");
+        }
+        targets.getAsJsonObject(name).addProperty("format", format.getKey());
+        return this;
+    }
+
+    // ── Passes ────────────────────────────────────────────────────────────────
+
+    /**
+     * Appends a pass using {@link #DEFAULT_VERTEX_SHADER}.
+     *
+     * @param fragmentShader e.g. {@code mymod:post/my_shader}
+     * @param pass           configures inputs, output and uniforms
+     */
+    public PostEffectBuilder pass(Identifier fragmentShader, Consumer<PassBuilder> pass) {
+        return pass(DEFAULT_VERTEX_SHADER, fragmentShader, pass);
+    }
+
+    /** Appends a pass with an explicit vertex shader. */
+    public PostEffectBuilder pass(Identifier vertexShader, Identifier fragmentShader, Consumer<PassBuilder> pass) {
+        PassBuilder builder = new PassBuilder();
+        pass.accept(builder);
+        if (builder.output == null) {
+            throw new IllegalStateException("Pass " + passes.size() + " of " + id + " has no output");
+        }
+        passes.add(builder.toJson(vertexShader, fragmentShader));
+        return this;
+    }
+
+    // ── Build ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Registers the definition and returns a managed handle for it.
+     * Calling this again with the same id replaces the definition from the next reload.
+     */
+    public ManagedShaderEffect build() {
+        return build(e -> {});
+    }
+
+    /**
+     * Registers the definition and returns a managed handle for it.
+     *
+     * @param initCallback called with the shader after (re-)initialization succeeds
+     */
+    public ManagedShaderEffect build(Consumer<ManagedShaderEffect> initCallback) {
+        return ShaderEffectManager.getInstance().manage(register(), initCallback);
+    }
+
+    /**
+     * Registers the definition without managing it, for callers that create and dispose
+     * handles themselves via {@link ShaderEffectManager#manage(Identifier)}.
+     *
+     * @return the effect id
+     */
+    public Identifier register() {
+        if (passes.isEmpty()) {
+            throw new IllegalStateException("Post effect " + id + " has no passes");
+        }
+        JsonObject root = new JsonObject();
+        root.add("targets", targets.deepCopy());
+        root.add("passes", passes.deepCopy());
+        BuiltEffectRegistry.register(id, root);
+        return id;
+    }
+
+    /**
+     * Configures one pass. Targets are referenced by name; {@code "minecraft:main"} is the
+     * main framebuffer.
+     */
+    public static final class PassBuilder {
+
+        private final JsonArray inputs = new JsonArray();
+        private final Map<String, JsonArray> uniforms = new LinkedHashMap<>();
+        private String output;
+        private Identifier computeShader;
+
+        private PassBuilder() {}
+
+        /** Samples {@code target} as {@code <sampler>Sampler}. */
+        public PassBuilder input(String sampler, String target) {
+            return input(sampler, target, false, false);
+        }
+
+        /**
+         * Samples {@code target} as {@code <sampler>Sampler}.
+         *
+         * @param depth    sample the target's depth attachment instead of its colour
+         * @param bilinear use linear filtering
+         */
+        public PassBuilder input(String sampler, String target, boolean depth, boolean bilinear) {
+            JsonObject input = new JsonObject();
+            input.addProperty("sampler_name", sampler);
+            input.addProperty("target", target);
+            if (depth) input.addProperty("use_depth_buffer", true);
+            if (bilinear) input.addProperty("bilinear", true);
+            inputs.add(input);
+            return this;
+        }
+
+        /** Sets the target this pass renders into. */
+        public PassBuilder output(String target) {
+            this.output = target;
+            return this;
+        }
+
+        /**
+         * Also provides a compute variant of this pass, e.g. {@code mymod:post/my_shader}
+         * for {@code assets/mymod/shaders/post/my_shader.csh}. It runs instead of the
+         * fragment shader where GL 4.3 compute is available and the pass qualifies; see
+         * {@link com.jellomakker.jello.api.managed.ShaderEffectManager#setComputeEnabled}.
+         */
+        public PassBuilder computeShader(Identifier computeShader) {
+            this.computeShader = computeShader;
+            return this;
+        }
+
+        /** Declares a {@code float} member of uniform block {@code block} with a default value. */
+        public PassBuilder uniform(String block, String name, float value) {
+            JsonObject entry = entry(block, name, "float");
+            entry.addProperty("value", value);
+            return this;
+        }
+
+        /** Declares a {@code vec2} member. */
+        public PassBuilder uniform(String block, String name, float x, float y) {
+            entry(block, name, "vec2").add("value", floats(x, y));
+            return this;
+        }
+
+        /** Declares a {@code vec3} member. */
+        public PassBuilder uniform(String block, String name, float x, float y, float z) {
+            entry(block, name, "vec3").add("value", floats(x, y, z));
+            return this;
+        }
+
+        /** Declares a {@code vec4} member. */
+        public PassBuilder uniform(String block, String name, float x, float y, float z, float w) {
+            entry(block, name, "vec4").add("value", floats(x, y, z, w));
+            return this;
+        }
+
+        /** Declares an {@code int} member. */
+        public PassBuilder uniform(String block, String name, int value) {
+            JsonObject entry = entry(block, name, "int");
+            entry.addProperty("value", value);
+            return this;
+        }
+
+        /** Declares a {@code matrix4x4} member (column-major, as in GLSL). */
+        public PassBuilder uniform(String block, String name, Matrix4fc value) {
+            entry(block, name, "matrix4x4").add("value", floats(value.get(new float[16])));
+            return this;
+        }
+
+        private JsonObject entry(String block, String name, String type) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("name", name);
+            entry.addProperty("type", type);
+            uniforms.computeIfAbsent(block, b -> new JsonArray()).add(entry);
+            return entry;
+        }
+
+        private static JsonArray floats(float... values) {
+            JsonArray array = new JsonArray();
+            for (float v : values) array.add(v);
+            return array;
+        }
+
+        private JsonObject toJson(Identifier vertexShader, Identifier fragmentShader) {
+            JsonObject pass = new JsonObject();
+            pass.addProperty("vertex_shader", vertexShader.toString());
+            pass.addProperty("fragment_shader", fragmentShader.toString());
+            pass.add("inputs", inputs.deepCopy());
+            pass.addProperty("output", output);
+            if (computeShader != null) pass.addProperty("compute_shader", computeShader.toString());
+            if (!uniforms.isEmpty()) {
+                JsonObject blocks = new JsonObject();
+                uniforms.forEach((block, entries) -> blocks.add(block, entries.deepCopy()));
+                pass.add("uniforms", blocks);
+            }
+            return pass;
+        }
+    }
+}
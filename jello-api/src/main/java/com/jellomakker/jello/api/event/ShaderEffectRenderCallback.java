@@ -9,6 +9,9 @@ import net.fabricmc.fabric.api.event.EventFactory;
  *
  * <p>This is the correct place to call {@link com.jellomakker.jello.api.managed.ManagedShaderEffect#render(float)}.
  * Rendering post effects anywhere else can break Fabulous graphics and other vanilla effects.
+ * Effects added with {@link com.jellomakker.jello.api.managed.ShaderEffectManager#composite}
+ * are queued here and run together after the last listener, so after every effect that
+ * rendered directly.
  */
 @FunctionalInterface
 public interface ShaderEffectRenderCallback {
@@ -0,0 +1,48 @@
+package com.jellomakker.jello.api.managed;
+
+import net.minecraft.util.Identifier;
+
+import java.util.List;
+
+/**
+ * Snapshot of the GPU memory held by managed effects' render targets, taken by
+ * {@link ShaderEffectManager#getGpuMemoryStats()}.
+ *
+ * <p>Byte counts are estimated from each target's dimensions at the current resolution and
+ * its allocated format; depth attachments are not included.
+ *
+ * <pre>{@code
+ * GpuMemoryStats memory = ShaderEffectManager.getInstance().getGpuMemoryStats();
+ * LOGGER.info("jello targets: {} MiB of {} MiB", memory.totalBytes() >> 20, memory.budgetBytes() >> 20);
+ * }</pre>
+ *
+ * @param effectBytes    persistent targets of initialized managed effects
+ * @param pooledBytes    transient targets allocated by the shared pool, idle or borrowed
+ * @param cachedBytes    persistent targets of processors parked by {@link ShaderEffectManager#dispose}
+ * @param budgetBytes    the configured budget, or {@code 0} if unlimited
+ * @param budgetReleases number of effects released so far to stay within the budget
+ * @param effects        every initialized managed effect, largest first
+ */
+public record GpuMemoryStats(long effectBytes, long pooledBytes, long cachedBytes, long budgetBytes,
+                             int budgetReleases, List<Effect> effects) {
+
+    /** @return bytes held by all of jello-api's render targets */
+    public long totalBytes() {
+        return effectBytes + pooledBytes + cachedBytes;
+    }
+
+    /** @return {@code true} if a budget is set and the total exceeds it */
+    public boolean isOverBudget() {
+        return budgetBytes > 0 && totalBytes() > budgetBytes;
+    }
+
+    /**
+     * One initialized managed effect.
+     *
+     * @param location   the effect's resource location
+     * @param bytes      bytes held by its persistent targets
+     * @param idleFrames frames since it last rendered; {@code 0} if it rendered this frame
+     * @param suspended  whether it is {@link ManagedShaderEffect#suspend() suspended}
+     */
+    public record Effect(Identifier location, long bytes, int idleFrames, boolean suspended) {}
+}
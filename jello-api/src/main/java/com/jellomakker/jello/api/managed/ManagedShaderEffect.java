@@ -5,6 +5,7 @@ import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A lazily-initialized, lifecycle-managed wrapper around Minecraft's {@link PostEffectProcessor}.
@@ -12,7 +13,12 @@ import java.io.IOException;
  * <p>Instances are obtained via {@link ShaderEffectManager#manage(Identifier)}.
  * The underlying shader is automatically re-initialized whenever the screen resolution
  * changes or assets are reloaded (F3+T). Uniforms can be pushed each frame before calling
- * {@link #render(float)}.
+ * {@link #render(float)}; only blocks whose values changed are re-uploaded.
+ *
+ * <p>{@link #render(float)}, {@link #getShaderEffect()} and {@link #initialize()} must be
+ * called on the render thread. {@link #initializeAsync()}, {@link #release()},
+ * {@link #suspend()}, {@link #resume()} and uniform updates may be called from any thread;
+ * off the render thread they take effect at the start of the next frame.
  *
  * <h2>Typical usage</h2>
  * <pre>{@code
@@ -43,6 +49,23 @@ public interface ManagedShaderEffect {
      */
     void initialize() throws IOException;
 
+    /**
+     * Initializes the shader without stalling a frame on file access. The effect JSON is
+     * read and parsed on a worker thread. The processor is then created and every pass
+     * program compiled and linked in one render-thread task from the client's queue, so the
+     * first {@link #render(float)} after the future completes draws without linking. Until
+     * then {@link #render(float)} skips this effect. Linking still costs the frame that
+     * task runs in, unless the programs were restored from the program binary cache.
+     *
+     * <p>Returns the in-flight future if a load is already pending, and a completed one
+     * if the shader is already initialized. If the effect is released or reloaded first,
+     * the future completes without initializing it and it loads lazily as usual. Called
+     * off the render thread, the load starts at the beginning of the next frame.
+     *
+     * @return completes with this effect, or exceptionally if loading failed
+     */
+    CompletableFuture<ManagedShaderEffect> initializeAsync();
+
     /** @return {@code true} if the shader has been successfully initialized */
     boolean isInitialized();
 
@@ -58,6 +81,27 @@ public interface ManagedShaderEffect {
      */
     void release();
 
+    /**
+     * Suspends the effect: {@link #render(float)} returns immediately, while the processor,
+     * its programs and its persistent targets stay allocated. Use this instead of
+     * {@link ShaderEffectManager#dispose(ManagedShaderEffect)} for an effect that is switched
+     * off and on frequently, so switching it back on does not reload anything.
+     *
+     * <p>Reloads and resizes still invalidate a suspended effect; it re-initializes lazily
+     * after {@link #resume()}.
+     */
+    void suspend();
+
+    /**
+     * Resumes a {@link #suspend() suspended} effect. Its persistent targets are cleared to
+     * their clear colour before the next frame, so history effects do not blend in the
+     * stale frame from before the suspension. Does nothing if the effect is not suspended.
+     */
+    void resume();
+
+    /** @return {@code true} between {@link #suspend()} and {@link #resume()} */
+    boolean isSuspended();
+
     // ── Rendering ─────────────────────────────────────────────────────────────
 
     /**
@@ -71,10 +115,51 @@ public interface ManagedShaderEffect {
      */
     void render(float tickDelta);
 
+    // ── Diagnostics ───────────────────────────────────────────────────────────
+
+    /**
+     * @return the number of passes declared in the effect's JSON, or {@code 0} if not initialized
+     */
+    int getDeclaredPassCount();
+
+    /**
+     * @return the number of shader passes actually run per frame after copy-pass
+     *         elimination (see {@link ShaderEffectManager#registerCopyShader}),
+     *         or {@code 0} if not initialized
+     */
+    int getPassCount();
+
+    /**
+     * Returns GPU timing and memory statistics for this effect. Timing requires
+     * {@code -Djello.gpuTimers=true} or {@link #setGpuTimingEnabled}; see {@link ShaderEffectStats}.
+     */
+    ShaderEffectStats getStats();
+
+    /**
+     * Times this effect on the GPU even without {@code -Djello.gpuTimers=true}, e.g. to adapt
+     * its quality to its own cost. Costs a few timestamp queries per frame; results arrive a
+     * few frames late and never stall the render thread. Turning it off again closes the
+     * timer unless timing is on globally.
+     */
+    void setGpuTimingEnabled(boolean enabled);
+
     // ── Uniforms ──────────────────────────────────────────────────────────────
 
+    /**
+     * Returns a handle to the uniform {@code name}, resolving it to its block and offset
+     * in every pass that declares it. Hold on to the handle – setting values through it
+     * performs no lookups, and it stays valid across reloads.
+     *
+     * <p>Effects managed with the same location render the same loaded chain, so they
+     * share its uniforms: the value uploaded last applies to all of them.
+     *
+     * @param name uniform name as declared in the post-effect JSON
+     */
+    ManagedUniform findUniform(String name);
+
     /**
      * Sets a {@code float} uniform across all passes that declare it.
+     * Equivalent to {@code findUniform(name).set(value)}.
      *
      * @param name  uniform name as declared in the shader JSON / GLSL source
      * @param value the value to upload
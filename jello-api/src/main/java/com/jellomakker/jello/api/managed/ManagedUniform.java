@@ -0,0 +1,54 @@
+package com.jellomakker.jello.api.managed;
+
+import org.joml.Matrix4fc;
+
+/**
+ * A pre-resolved handle to a uniform declared in a managed effect's post-effect JSON.
+ *
+ * <p>Obtain a handle once with {@link ManagedShaderEffect#findUniform(String)} and keep it –
+ * setting a value through a handle performs no name lookups. Values are written into a
+ * CPU-side copy of every uniform block that declares the name; only blocks that actually
+ * changed are uploaded before the next {@link ManagedShaderEffect#render(float)}.
+ * The last value set is re-applied automatically after every reload.
+ *
+ * <p>Values may be set from any thread. Off the render thread they are applied at the start
+ * of the next frame, and only the latest of several values set before then is applied.
+ *
+ * <pre>{@code
+ * private static final ManagedUniform STRENGTH = BLUR.findUniform("Strength");
+ *
+ * ShaderEffectRenderCallback.EVENT.register(tickDelta -> {
+ *     STRENGTH.set(0.75f);
+ *     BLUR.render(tickDelta);
+ * });
+ * }</pre>
+ */
+public interface ManagedUniform {
+
+    /** @return the uniform name this handle was resolved from */
+    String getName();
+
+    /**
+     * @return {@code true} if the uniform is declared by at least one pass of the
+     *         currently loaded shader (always {@code false} before initialization)
+     */
+    boolean isBound();
+
+    /** Sets a {@code float} uniform. */
+    void set(float value);
+
+    /** Sets a {@code vec2} uniform. */
+    void set(float x, float y);
+
+    /** Sets a {@code vec3} uniform. */
+    void set(float x, float y, float z);
+
+    /** Sets a {@code vec4} uniform. */
+    void set(float x, float y, float z, float w);
+
+    /** Sets an {@code int} uniform. */
+    void set(int value);
+
+    /** Sets a {@code matrix4x4} uniform. */
+    void set(Matrix4fc matrix);
+}
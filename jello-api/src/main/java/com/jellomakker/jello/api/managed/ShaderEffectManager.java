@@ -8,11 +8,14 @@ import java.util.function.Consumer;
 /**
  * Central registry for {@link ManagedShaderEffect} instances.
  *
- * <p>All managed shaders are automatically re-initialized on:
- * <ul>
- *   <li>Screen resolution change</li>
- *   <li>Resource pack reload (F3+T)</li>
- * </ul>
+ * <p>Managed shaders are automatically re-initialized on resource pack reload (F3+T) if
+ * their JSON or shader sources changed.
+ * On a screen resolution change they keep their programs and only re-size their targets,
+ * at most once per frame.
+ *
+ * <p>{@link #manage(Identifier)} and {@link #dispose(ManagedShaderEffect)} may be called
+ * from any thread, e.g. a networking or tick thread. Off the render thread they are queued
+ * without locking and applied at the start of the next frame, in call order per thread.
  *
  * <h2>Obtaining an instance</h2>
  * <pre>{@code
@@ -54,11 +57,145 @@ public interface ShaderEffectManager {
     // ── Disposal ──────────────────────────────────────────────────────────────
 
     /**
-     * Permanently disposes of a managed shader, releasing its GL resources and
-     * removing it from the reload list. The {@link ManagedShaderEffect} handle
-     * must not be used afterwards.
+     * Disposes of a managed shader and removes it from the reload list. The
+     * {@link ManagedShaderEffect} handle must not be used afterwards.
+     *
+     * <p>An initialized shader is returned to a bounded LRU cache of warm processors
+     * rather than closed, so a later {@link #manage(Identifier)} of the same location
+     * reuses it instead of loading it again. The cache is flushed on reload.
      *
      * @param shader a shader previously obtained from {@link #manage(Identifier)}
      */
     void dispose(ManagedShaderEffect shader);
+
+    /**
+     * Bounds the cache of warm processors kept by {@link #dispose(ManagedShaderEffect)}.
+     * Least-recently disposed processors are closed first once either limit is exceeded.
+     * Defaults to 8 entries and 64 MiB of persistent targets; pass {@code 0} to disable.
+     *
+     * @param maxEntries  maximum number of cached processors
+     * @param budgetBytes maximum estimated GPU memory held by cached processors
+     */
+    void setProcessorCacheLimits(int maxEntries, long budgetBytes);
+
+    /**
+     * When enabled, effects that were initialized before a resource reload start
+     * {@link ManagedShaderEffect#initializeAsync() loading again} right away, while the
+     * loading screen is still up, instead of on their first frame afterwards.
+     * Disabled by default.
+     */
+    void setPrewarmOnReload(boolean prewarm);
+
+    // ── GPU memory ────────────────────────────────────────────────────────────
+
+    /**
+     * Caps the render-target memory of all managed effects, the shared target pool and the
+     * processor cache together. While the total is over budget, at the start of each frame
+     * parked processors are closed first, then effects that did not render in the previous
+     * frame are {@link ManagedShaderEffect#release() released} – suspended ones first, then
+     * least recently rendered. Effects rendering every frame are never released.
+     *
+     * <p>Unlimited by default; {@code -Djello.gpuBudgetMiB=N} sets an initial budget.
+     *
+     * @param budgetBytes maximum estimated target memory, or {@code 0} for no limit
+     */
+    void setGpuMemoryBudget(long budgetBytes);
+
+    /**
+     * Returns current target memory totals and a per-effect breakdown, e.g. for a debug
+     * screen or a support dump. Computed on each call.
+     */
+    GpuMemoryStats getGpuMemoryStats();
+
+    // ── Compositing ───────────────────────────────────────────────────────────
+
+    /**
+     * Adds {@code shader} to the composite chain shared by every mod using jello-api. Its
+     * {@link ManagedShaderEffect#render(float)} then only prepares and queues it. Once every
+     * {@link com.jellomakker.jello.api.event.ShaderEffectRenderCallback} listener has
+     * returned, all queued effects run in ascending {@code priority} order as one frame
+     * graph. Equal priorities run in the order they were composited. The main framebuffer
+     * is imported once, and transient targets pass from one effect to the next wherever
+     * their lifetimes do not overlap, instead of each effect holding its own set.
+     *
+     * <p>Composited effects run after every effect rendered directly, whatever order the
+     * listeners were registered in. An effect whose last pass copies a full-size transient
+     * target into main with a registered copy shader skips that copy: the next effect reads
+     * the target directly, and one texture copy into main ends the chain. GPU timers cover
+     * each effect's own passes. Calling this again only changes the priority.
+     *
+     * @param priority lower runs earlier
+     */
+    void composite(ManagedShaderEffect shader, int priority);
+
+    /** Takes {@code shader} out of the composite chain, so it renders when called again. */
+    void decomposite(ManagedShaderEffect shader);
+
+    // ── Pass-graph optimization ───────────────────────────────────────────────
+
+    /**
+     * Declares {@code fragmentShader} (e.g. {@code mymod:post/copy}) as a plain copy: it
+     * samples its single input at the current texel and writes it out unchanged.
+     *
+     * <p>Passes using a registered copy shader with one input and no uniforms are candidates
+     * for removal when an effect loads: a copy from a transient target into a persistent
+     * history target becomes a per-frame framebuffer swap, and a trailing copy out of a
+     * persistent target becomes a texture blit. Compare
+     * {@link ManagedShaderEffect#getDeclaredPassCount()} with
+     * {@link ManagedShaderEffect#getPassCount()} to see the effect.
+     */
+    void registerCopyShader(Identifier fragmentShader);
+
+    /**
+     * Enables or disables copy-pass elimination for effects loaded from now on.
+     * Enabled by default; has no effect until a copy shader is registered.
+     */
+    void setChainOptimizationEnabled(boolean enabled);
+
+    // ── Compute passes ────────────────────────────────────────────────────────
+
+    /**
+     * Enables or disables compute variants for effects loaded from now on. A pass with a
+     * {@code "compute_shader"} is dispatched as a compute shader if GL 4.3 compute is
+     * available, the shader links, every input is a target other than its output, and the
+     * output is {@code minecraft:main} or an {@code RGBA8} target. Any other pass, and every
+     * pass while disabled, renders with its fragment shader as usual.
+     *
+     * <p>Enabled by default; start with {@code -Djello.compute=false} to disable it.
+     */
+    void setComputeEnabled(boolean enabled);
+
+    /** @return {@code true} if the driver supports compute shaders, so compute variants can run */
+    boolean isComputeAvailable();
+
+    // ── Diagnostics ───────────────────────────────────────────────────────────
+
+    /**
+     * Returns hit/miss counters for the render-target pool shared by all managed effects.
+     * The pool is flushed on resolution change and resource reload.
+     */
+    TargetPoolStats getTargetPoolStats();
+
+    /**
+     * Returns how many initialized effects the most recent reload kept instead of rebuilding,
+     * because neither their post-effect JSON nor any shader source they use had changed.
+     * Effects that sample textures are always rebuilt.
+     */
+    int getLastReloadSkippedCount();
+
+    /**
+     * Returns the number of GPU objects jello-api currently owns: processors of managed and
+     * cached effects plus GPU timers. Disposing every effect and
+     * {@link #setProcessorCacheLimits(int, long) emptying the cache} brings it back to
+     * {@code 0}, which makes it a cheap leak check.
+     */
+    int getLiveGpuObjectCount();
+
+    /**
+     * Returns how many effects were garbage-collected without
+     * {@link #dispose(ManagedShaderEffect)}. Their GPU resources are closed at the start of
+     * the next frame. Start the client with {@code -Djello.leakDebug=true} to log where each
+     * one was created.
+     */
+    int getLeakedEffectCount();
 }
@@ -0,0 +1,53 @@
+package com.jellomakker.jello.api.managed;
+
+import java.util.List;
+
+/**
+ * GPU cost of one {@link ManagedShaderEffect}, measured with asynchronous timer queries.
+ *
+ * <p>Timing is off by default and costs nothing when off: no queries are issued and every
+ * time reads {@code 0}. Start the client with {@code -Djello.gpuTimers=true} to enable it.
+ * Results are read back a few frames late so the CPU never waits on the GPU, which means
+ * the first frames after enabling or after a reload report nothing.
+ *
+ * <pre>{@code
+ * ShaderEffectStats stats = BLUR.getStats();
+ * LOGGER.info("blur: {} ms avg, {} ms p99 over {} passes",
+ *     stats.getAverageGpuMs(), stats.getP99GpuMs(), stats.getPassCount());
+ * }</pre>
+ */
+public interface ShaderEffectStats {
+
+    /** @return {@code true} if GPU timer queries are being issued */
+    boolean isTimingEnabled();
+
+    /** @return GPU time of the most recently resolved frame, in milliseconds */
+    double getLastGpuMs();
+
+    /** @return mean GPU time over the sample window, in milliseconds */
+    double getAverageGpuMs();
+
+    /** @return 99th-percentile GPU time over the sample window, in milliseconds */
+    double getP99GpuMs();
+
+    /** @return number of frames in the sample window */
+    int getSampleCount();
+
+    /** @return shader passes run per frame (after copy-pass elimination) */
+    int getPassCount();
+
+    /**
+     * @param pass index into the passes actually run, {@code 0 <= pass < getPassCount()}
+     * @return smoothed GPU time of that pass in milliseconds, or {@code 0} if unknown
+     */
+    double getPassGpuMs(int pass);
+
+    /** @return estimated bytes held by the effect's render targets at the current resolution */
+    long getTargetBytes();
+
+    /**
+     * @return every internal target with its size, declared format, allocated format and
+     *         byte cost at the current resolution; empty before initialization
+     */
+    List<TargetInfo> getTargets();
+}
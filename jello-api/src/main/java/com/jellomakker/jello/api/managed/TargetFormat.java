@@ -0,0 +1,46 @@
+package com.jellomakker.jello.api.managed;
+
+/**
+ * Colour format of a post-effect render target.
+ *
+ * <p>Declared per target in the effect JSON ({@code "format": "red8"}) or with
+ * {@link com.jellomakker.jello.api.builder.PostEffectBuilder#format}. These are the colour
+ * formats this Minecraft version's GPU layer can allocate; wider formats such as 10-bit or
+ * half-float targets are not offered. An unknown name in JSON loads as {@link #RGBA8}.
+ * {@link ShaderEffectStats#getTargets()} reports what was actually allocated.
+ *
+ * <p>Formats apply to persistent targets, including transient targets that copy-pass
+ * elimination promotes to persistent. Other transient targets come from the shared pool
+ * and are always {@link #RGBA8}.
+ */
+public enum TargetFormat {
+    /** 8-bit RGBA, Minecraft's default. */
+    RGBA8("rgba8", 4),
+    /** Single 8-bit channel – masks, coverage, luminance history. */
+    RED8("red8", 1);
+
+    private final String key;
+    private final int bytesPerPixel;
+
+    TargetFormat(String key, int bytesPerPixel) {
+        this.key = key;
+        this.bytesPerPixel = bytesPerPixel;
+    }
+
+    /** @return the name used in effect JSON */
+    public String getKey() {
+        return key;
+    }
+
+    public int getBytesPerPixel() {
+        return bytesPerPixel;
+    }
+
+    /** @return the format with this JSON name, or {@code null} */
+    public static TargetFormat byKey(String key) {
+        for (TargetFormat format : values()) {
+            if (format.key.equals(key)) return format;
+        }
+        return null;
+    }
+}
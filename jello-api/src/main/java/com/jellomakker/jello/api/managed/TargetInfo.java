@@ -0,0 +1,22 @@
+package com.jellomakker.jello.api.managed;
+
+import net.minecraft.util.Identifier;
+
+/**
+ * One render target of a loaded effect at the current resolution.
+ *
+ * @param id         the target name as declared
+ * @param width      width in pixels
+ * @param height     height in pixels
+ * @param persistent whether the target survives between frames
+ * @param requested  the declared format
+ * @param format     the format actually allocated; transient targets are always {@link TargetFormat#RGBA8}
+ */
+public record TargetInfo(Identifier id, int width, int height, boolean persistent,
+                         TargetFormat requested, TargetFormat format) {
+
+    /** @return colour bytes held by the target (depth attachments not included) */
+    public long bytes() {
+        return (long) width * height * format.getBytesPerPixel();
+    }
+}
@@ -0,0 +1,35 @@
+package com.jellomakker.jello.api.managed;
+
+/**
+ * Read-only view of the shared render-target pool used by all managed effects.
+ *
+ * <p>Transient targets (every non-{@code persistent} entry in a post-effect's
+ * {@code "targets"} block) are borrowed from this pool each frame and returned
+ * once the chain has run. In a steady state – same resolution, same effects –
+ * every acquire should be a hit and {@link #getLastFrameMisses()} should be {@code 0}.
+ *
+ * <pre>{@code
+ * TargetPoolStats pool = ShaderEffectManager.getInstance().getTargetPoolStats();
+ * LOGGER.info("pool: {} hits / {} misses, {} idle", pool.getHits(), pool.getMisses(), pool.getIdleCount());
+ * }</pre>
+ */
+public interface TargetPoolStats {
+
+    /** @return total number of acquires served from an idle pooled target */
+    long getHits();
+
+    /** @return total number of acquires that had to allocate a new target */
+    long getMisses();
+
+    /** @return number of allocations performed during the last completed frame */
+    int getLastFrameMisses();
+
+    /** @return number of targets currently idle in the pool, ready for reuse */
+    int getIdleCount();
+
+    /** @return estimated colour bytes of every target the pool has allocated and not yet closed */
+    long getAllocatedBytes();
+
+    /** Resets the hit/miss counters. Pooled targets are kept. */
+    void resetCounters();
+}
@@ -0,0 +1,85 @@
+package com.jellomakker.jello.api.util;
+
+import net.minecraft.util.math.Vec3d;
+import org.jetbrains.annotations.ApiStatus;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+
+/**
+ * The camera matrices of the current and previous world frame, for effects that reproject
+ * screen positions between frames (velocity motion blur, temporal filters).
+ *
+ * <p>Minecraft renders the world relative to the camera, so the view-projection matrices
+ * here map camera-relative positions to clip space. To carry a point from this frame into
+ * the last one, reconstruct its camera-relative position with
+ * {@link #getInverseViewProjection()}, add {@link #getCameraDelta()} and transform it with
+ * {@link #getPreviousViewProjection()}.
+ *
+ * <p>Captured at the start of every world render. Returned objects are live views that are
+ * overwritten on the next frame; copy them if you need to keep them. Render thread only.
+ */
+public final class CameraMatrices {
+
+    private static final Matrix4f VIEW_PROJECTION = new Matrix4f();
+    private static final Matrix4f INVERSE_VIEW_PROJECTION = new Matrix4f();
+    private static final Matrix4f PREVIOUS_VIEW_PROJECTION = new Matrix4f();
+    private static final Vector3f CAMERA_DELTA = new Vector3f();
+    private static double cameraX, cameraY, cameraZ;
+    private static int frames;
+
+    private CameraMatrices() {}
+
+    /** @return projection × view rotation of the current frame */
+    public static Matrix4fc getViewProjection() {
+        return VIEW_PROJECTION;
+    }
+
+    /** @return the inverse of {@link #getViewProjection()} */
+    public static Matrix4fc getInverseViewProjection() {
+        return INVERSE_VIEW_PROJECTION;
+    }
+
+    /**
+     * @return the previous frame's view-projection, or the current one if there is no
+     *         previous frame (first frame, or after a reload)
+     */
+    public static Matrix4fc getPreviousViewProjection() {
+        return frames > 1 ? PREVIOUS_VIEW_PROJECTION : VIEW_PROJECTION;
+    }
+
+    /** @return current camera position minus previous camera position, in blocks */
+    public static Vector3f getCameraDelta() {
+        return CAMERA_DELTA;
+    }
+
+    /** @return {@code true} once two consecutive frames have been captured */
+    public static boolean hasPreviousFrame() {
+        return frames > 1;
+    }
+
+    // ── Internal ──────────────────────────────────────────────────────────────
+
+    @ApiStatus.Internal
+    public static void update(Matrix4fc viewRotation, Matrix4fc projection, Vec3d cameraPos) {
+        PREVIOUS_VIEW_PROJECTION.set(VIEW_PROJECTION);
+        projection.mul(viewRotation, VIEW_PROJECTION);
+        VIEW_PROJECTION.invert(INVERSE_VIEW_PROJECTION);
+        if (frames > 0) {
+            CAMERA_DELTA.set((float) (cameraPos.x - cameraX), (float) (cameraPos.y - cameraY), (float) (cameraPos.z - cameraZ));
+        } else {
+            CAMERA_DELTA.zero();
+        }
+        cameraX = cameraPos.x;
+        cameraY = cameraPos.y;
+        cameraZ = cameraPos.z;
+        if (frames < 2) frames++;
+    }
+
+    /** Forgets the previous frame, e.g. after a world change or teleport-like discontinuity. */
+    @ApiStatus.Internal
+    public static void reset() {
+        frames = 0;
+        CAMERA_DELTA.zero();
+    }
+}
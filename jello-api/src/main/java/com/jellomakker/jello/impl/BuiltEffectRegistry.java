@@ -0,0 +1,47 @@
+package com.jellomakker.jello.impl;
+
+import com.google.gson.JsonObject;
+import com.jellomakker.jello.JelloApi;
+import com.mojang.serialization.JsonOps;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Effect definitions declared through {@link com.jellomakker.jello.api.builder.PostEffectBuilder}.
+ *
+ * <p>Definitions are kept in their JSON form so jello-api's own analysis
+ * ({@link EffectJson}) treats them exactly like resource-pack effects, and decoded with
+ * vanilla's codec when {@link com.jellomakker.jello.mixin.ShaderLoaderMixin} merges them
+ * into the shader loader on each reload. Registration is thread-safe; reloads run on a
+ * worker thread.
+ */
+public final class BuiltEffectRegistry {
+
+    private static final Map<Identifier, JsonObject> DEFINITIONS = new ConcurrentHashMap<>();
+
+    private BuiltEffectRegistry() {}
+
+    public static void register(Identifier id, JsonObject definition) {
+        DEFINITIONS.put(id, definition);
+    }
+
+    static @Nullable JsonObject get(Identifier id) {
+        return DEFINITIONS.get(id);
+    }
+
+    /**
+     * Decodes every registered definition, skipping (and logging) any the codec rejects.
+     */
+    public static Map<Identifier, PostEffectPipeline> decodeAll() {
+        Map<Identifier, PostEffectPipeline> decoded = new HashMap<>();
+        DEFINITIONS.forEach((id, json) -> PostEffectPipeline.CODEC.parse(JsonOps.INSTANCE, json)
+            .resultOrPartial(error -> JelloApi.LOGGER.error("[JelloApi] Invalid built post effect '{}': {}", id, error))
+            .ifPresent(pipeline -> decoded.put(id, pipeline)));
+        return decoded;
+    }
+}
@@ -0,0 +1,209 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.api.managed.TargetFormat;
+import com.jellomakker.jello.mixin.PostEffectProcessorAccessor;
+import com.mojang.blaze3d.systems.CommandEncoder;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A rewrite of a loaded post-effect chain that removes redundant full-screen copy passes.
+ *
+ * <p>A pass counts as a copy if its fragment shader was registered through
+ * {@link com.jellomakker.jello.api.managed.ShaderEffectManager#registerCopyShader}, it has
+ * exactly one target input and no uniforms. Two rewrites are applied:
+ * <ol>
+ *   <li><b>Ping-pong.</b> A copy from a transient target {@code S} into a persistent history
+ *       target {@code P} is dropped when {@code S} has a single producer and nothing reads
+ *       {@code P} afterwards. {@code S} is promoted to persistent and the two framebuffers
+ *       swap places after every frame, so {@code P} holds this frame's result next frame.</li>
+ *   <li><b>Blit.</b> A copy whose source is persistent and whose destination is not touched
+ *       by any later pass is replaced by a texture-to-texture copy after the chain has run.</li>
+ * </ol>
+ * For the accumulation blur ({@code accumulate → temp}, {@code temp → swap},
+ * {@code temp → main}) this leaves one shader pass, one blit and a reference swap.
+ */
+final class ChainRewrite {
+
+    static final ChainRewrite NONE = new ChainRewrite(0, new boolean[0], Set.of(), List.of(), List.of());
+
+    /** A deferred operation between two targets. */
+    record Link(Identifier source, Identifier destination) {}
+
+    private final int declaredPasses;
+    private final boolean[] removed;
+    private final Set<Identifier> promoted;
+    private final List<Link> blits;
+    private final List<Link> swaps;
+
+    private ChainRewrite(int declaredPasses, boolean[] removed, Set<Identifier> promoted,
+                         List<Link> blits, List<Link> swaps) {
+        this.declaredPasses = declaredPasses;
+        this.removed = removed;
+        this.promoted = promoted;
+        this.blits = blits;
+        this.swaps = swaps;
+    }
+
+    // ── Planning ──────────────────────────────────────────────────────────────
+
+    static ChainRewrite plan(PassGraph graph, Set<Identifier> copyShaders) {
+        List<PassGraph.Pass> passes = graph.passes();
+        int n = passes.size();
+        if (n == 0 || copyShaders.isEmpty()) return NONE;
+
+        boolean[] removed = new boolean[n];
+        Set<Identifier> promoted = new HashSet<>();
+        Map<Identifier, Integer> swappedAt = new HashMap<>();
+        List<Link> swaps = new ArrayList<>();
+        List<Link> blits = new ArrayList<>();
+
+        // Ping-pong: transient S → persistent P.
+        for (PassGraph.Pass copy : passes) {
+            if (!isCopy(copy, copyShaders)) continue;
+            Identifier s = copy.inputs().get(0);
+            Identifier p = copy.output();
+            PassGraph.Target ts = graph.target(s);
+            PassGraph.Target tp = graph.target(p);
+            if (ts == null || tp == null || ts.persistent() || !tp.persistent()) continue;
+            if (!ts.interchangeableWith(tp)) continue;
+
+            int producer = -1;
+            boolean ok = true;
+            for (PassGraph.Pass other : passes) {
+                if (other == copy) continue;
+                if (other.output().equals(s)) {
+                    if (producer != -1 || other.index() > copy.index() || other.inputs().contains(s)) ok = false;
+                    producer = other.index();
+                }
+                if (other.output().equals(p)) ok = false;
+                if (other.index() > copy.index() && other.inputs().contains(p)) ok = false;
+            }
+            if (!ok || producer == -1) continue;
+            for (PassGraph.Pass other : passes) {
+                if (other.index() < producer && other.inputs().contains(s)) ok = false;
+            }
+            if (!ok) continue;
+
+            removed[copy.index()] = true;
+            promoted.add(s);
+            swappedAt.put(s, copy.index());
+            swappedAt.put(p, copy.index());
+            swaps.add(new Link(s, p));
+        }
+
+        // Blit: persistent S → D with no later pass touching D or rewriting S.
+        for (int i = n - 1; i >= 0; i--) {
+            PassGraph.Pass copy = passes.get(i);
+            if (removed[i] || !isCopy(copy, copyShaders)) continue;
+            Identifier s = copy.inputs().get(0);
+            Identifier d = copy.output();
+            PassGraph.Target ts = graph.target(s);
+            if (ts == null || !ts.screenSized() || !(ts.persistent() || promoted.contains(s))) continue;
+            PassGraph.Target td = graph.target(d);
+            if (td == null ? !d.equals(PostEffectProcessor.MAIN) || ts.scale() != 1.0f || ts.format() != TargetFormat.RGBA8
+                           : !ts.interchangeableWith(td) || !(td.persistent() || promoted.contains(d))) continue;
+            if (swappedAt.getOrDefault(s, -1) > i || swappedAt.getOrDefault(d, -1) > i) continue;
+
+            boolean ok = true;
+            for (int j = i + 1; j < n && ok; j++) {
+                if (removed[j]) continue;
+                PassGraph.Pass later = passes.get(j);
+                if (later.inputs().contains(d) || later.output().equals(d) || later.output().equals(s)) ok = false;
+            }
+            if (!ok) continue;
+
+            removed[i] = true;
+            blits.add(0, new Link(s, d));
+        }
+
+        if (blits.isEmpty() && swaps.isEmpty()) return NONE;
+        return new ChainRewrite(n, removed, Collections.unmodifiableSet(promoted), List.copyOf(blits), List.copyOf(swaps));
+    }
+
+    private static boolean isCopy(PassGraph.Pass pass, Set<Identifier> copyShaders) {
+        return pass.inputs().size() == 1 && !pass.hasUniforms() && copyShaders.contains(pass.fragmentShader());
+    }
+
+    // ── Application ───────────────────────────────────────────────────────────
+
+    /**
+     * Drops removed passes from {@code processor} and promotes ping-pong targets to
+     * persistent. {@code declared} must be the processor's original pass list.
+     */
+    void apply(PostEffectProcessor processor, List<PostEffectPass> declared) {
+        if (this == NONE || declared.size() != declaredPasses) return;
+        PostEffectProcessorAccessor accessor = (PostEffectProcessorAccessor) processor;
+
+        List<PostEffectPass> kept = new ArrayList<>(declared.size());
+        for (int i = 0; i < declared.size(); i++) {
+            if (!removed[i]) kept.add(declared.get(i));
+        }
+        accessor.jello$setPasses(kept);
+
+        if (!promoted.isEmpty()) {
+            Map<Identifier, PostEffectPipeline.Targets> targets = new HashMap<>(accessor.jello$getInternalTargets());
+            for (Identifier id : promoted) {
+                PostEffectPipeline.Targets t = targets.get(id);
+                if (t != null && !t.persistent()) {
+                    targets.put(id, new PostEffectPipeline.Targets(t.width(), t.height(), true, t.clearColor()));
+                }
+            }
+            accessor.jello$setInternalTargets(targets);
+        }
+    }
+
+    /** Runs the deferred blits, then swaps ping-pong targets for the next frame. */
+    void afterRender(PostEffectProcessor processor, Framebuffer main) {
+        if (this == NONE) return;
+        Map<Identifier, Framebuffer> framebuffers = ((PostEffectProcessorAccessor) processor).jello$getFramebuffers();
+
+        if (!blits.isEmpty()) {
+            CommandEncoder encoder = RenderSystem.getDevice().createCommandEncoder();
+            for (int i = 0, n = blits.size(); i < n; i++) {
+                Link blit = blits.get(i);
+                Framebuffer src = framebuffers.get(blit.source());
+                Framebuffer dst = blit.destination().equals(PostEffectProcessor.MAIN) ? main : framebuffers.get(blit.destination());
+                if (src == null || dst == null || src.getColorAttachment() == null || dst.getColorAttachment() == null) continue;
+                if (src.textureWidth != dst.textureWidth || src.textureHeight != dst.textureHeight) continue;
+                encoder.copyTextureToTexture(src.getColorAttachment(), dst.getColorAttachment(),
+                    0, 0, 0, 0, 0, src.textureWidth, src.textureHeight);
+            }
+        }
+
+        for (int i = 0, n = swaps.size(); i < n; i++) {
+            Link swap = swaps.get(i);
+            Framebuffer a = framebuffers.get(swap.source());
+            Framebuffer b = framebuffers.get(swap.destination());
+            if (a == null || b == null) continue;
+            framebuffers.put(swap.source(), b);
+            framebuffers.put(swap.destination(), a);
+        }
+    }
+
+    // ── Diagnostics ───────────────────────────────────────────────────────────
+
+    int removedPassCount() {
+        int count = 0;
+        for (boolean r : removed) {
+            if (r) count++;
+        }
+        return count;
+    }
+
+    int blitCount() {
+        return blits.size();
+    }
+}
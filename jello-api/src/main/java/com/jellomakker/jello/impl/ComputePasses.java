@@ -0,0 +1,307 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.api.managed.TargetFormat;
+import com.jellomakker.jello.mixin.GlCommandEncoderAccessor;
+import com.jellomakker.jello.mixin.GlGpuBufferAccessor;
+import com.jellomakker.jello.mixin.PostEffectPassAccessor;
+import com.jellomakker.jello.mixin.PostEffectProcessorAccessor;
+import com.mojang.blaze3d.buffers.GpuBuffer;
+import com.mojang.blaze3d.opengl.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.client.render.FrameGraphBuilder;
+import net.minecraft.client.render.FramePass;
+import net.minecraft.client.texture.GlTexture;
+import net.minecraft.client.util.Handle;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL13C;
+import org.lwjgl.opengl.GL15C;
+import org.lwjgl.opengl.GL20C;
+import org.lwjgl.opengl.GL30C;
+import org.lwjgl.opengl.GL31C;
+import org.lwjgl.opengl.GL33C;
+import org.lwjgl.opengl.GL42C;
+import org.lwjgl.opengl.GL43C;
+import org.lwjgl.opengl.GLCapabilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * Runs passes that declare a {@code "compute_shader"} as compute dispatches instead of
+ * full-screen draws.
+ *
+ * <p>{@link #attach} compiles the compute variant of every qualifying pass when an effect
+ * loads. From then on {@link #render} adds a frame-graph pass for it in place of vanilla's:
+ * it reads and writes the same handles, so the rest of the chain, the target pool and the
+ * GPU timer cannot tell the difference. A pass qualifies if compute is available and
+ * enabled, every input is a colour target other than its output, and its output is
+ * {@code minecraft:main} or an {@code RGBA8} target. Anything else – including a compute
+ * shader that fails to compile – keeps the fragment path.
+ *
+ * <p>Compute shaders follow the fragment shader's interface: {@code <name>Sampler} inputs,
+ * the same uniform blocks (except {@code SamplerInfo}; use {@code textureSize} and
+ * {@code imageSize}), and an {@code OutImage} {@code rgba8} image to write. They must
+ * declare a {@value #GROUP_SIZE}x{@value #GROUP_SIZE} work group; one invocation covers
+ * one output texel.
+ *
+ * <p>Render-thread only.
+ */
+public final class ComputePasses {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JelloApi");
+
+    /** Work-group edge every compute variant declares; the dispatch covers the output with it. */
+    static final int GROUP_SIZE = 16;
+
+    private static final Map<PostEffectPass, ComputePass> PASSES = new WeakHashMap<>();
+    /** {@code null} until first checked on the render thread. */
+    @Nullable private static volatile Boolean available;
+    private static int nearestSampler;
+    private static int linearSampler;
+
+    private ComputePasses() {}
+
+    /** @return {@code true} if the driver supports compute shaders; {@code false} until checked on the render thread */
+    static boolean isAvailable() {
+        Boolean known = available;
+        if (known != null) return known;
+        if (!RenderSystem.isOnRenderThread()) return false;
+        GLCapabilities caps = GL.getCapabilities();
+        boolean supported = caps.OpenGL43 || (caps.GL_ARB_compute_shader && caps.GL_ARB_shader_image_load_store);
+        available = supported;
+        if (!supported) LOGGER.info("[JelloApi] Compute shaders unavailable; compute passes use their fragment shaders");
+        return supported;
+    }
+
+    /** {@code ns:post/x} → {@code ns:shaders/post/x.csh}. */
+    static Identifier sourcePath(Identifier computeShader) {
+        return computeShader.withPath("shaders/" + computeShader.getPath() + ".csh");
+    }
+
+    // ── Load ──────────────────────────────────────────────────────────────────
+
+    /**
+     * Compiles the compute variants of {@code processor}'s qualifying passes. Passes that
+     * already have one – the shader loader hands out the same processor again – keep it;
+     * passes a {@link ChainRewrite} removed get none.
+     *
+     * @return the number of passes that run as compute dispatches
+     */
+    static int attach(Identifier location, PassGraph graph, PostEffectProcessor processor,
+                      List<PostEffectPass> declared, ResourceManager resources) {
+        if (!ReloadableShaderEffectManager.INSTANCE.isComputeEnabled() || !isAvailable()) return 0;
+        List<PostEffectPass> live = ((PostEffectProcessorAccessor) processor).jello$getPasses();
+        int attached = 0;
+        for (PassGraph.Pass pass : graph.passes()) {
+            if (pass.computeShader() == null || pass.index() >= declared.size()) continue;
+            PostEffectPass target = declared.get(pass.index());
+            if (!live.contains(target)) continue;
+            if (PASSES.containsKey(target)) {
+                attached++;
+                continue;
+            }
+            String reason = ineligible(graph, pass);
+            if (reason != null) {
+                LOGGER.debug("[JelloApi] Pass {} of '{}' keeps its fragment shader: {}", pass.index(), location, reason);
+                continue;
+            }
+            int program = compile(pass.computeShader(), resources);
+            if (program == 0) continue;
+            PASSES.put(target, new ComputePass(program, pass));
+            attached++;
+        }
+        if (attached > 0) {
+            LOGGER.debug("[JelloApi] '{}' runs {} of {} passes as compute", location, attached, live.size());
+        }
+        return attached;
+    }
+
+    private static @Nullable String ineligible(PassGraph graph, PassGraph.Pass pass) {
+        if (pass.textureInputs()) return "samples a texture";
+        for (PassGraph.Sampler sampler : pass.samplers()) {
+            if (sampler.depth()) return "samples a depth buffer";
+            if (sampler.target().equals(pass.output())) return "reads its own output";
+        }
+        if (!pass.output().equals(PostEffectProcessor.MAIN)) {
+            PassGraph.Target output = graph.target(pass.output());
+            if (output == null) return "writes an external target";
+            if (output.format() != TargetFormat.RGBA8) return "writes a " + output.format() + " target";
+        }
+        return null;
+    }
+
+    /** @return the linked program, or {@code 0} after logging why it could not be built */
+    private static int compile(Identifier computeShader, ResourceManager resources) {
+        String source;
+        Optional<Resource> resource = resources.getResource(sourcePath(computeShader));
+        if (resource.isEmpty()) {
+            LOGGER.warn("[JelloApi] Compute shader '{}' not found, using the fragment shader", computeShader);
+            return 0;
+        }
+        try (InputStream in = resource.get().getInputStream()) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOGGER.warn("[JelloApi] Could not read compute shader '{}': {}", computeShader, e.getMessage());
+            return 0;
+        }
+
+        int shader = GL20C.glCreateShader(GL43C.GL_COMPUTE_SHADER);
+        GL20C.glShaderSource(shader, source);
+        GL20C.glCompileShader(shader);
+        if (GL20C.glGetShaderi(shader, GL20C.GL_COMPILE_STATUS) != GL11C.GL_TRUE) {
+            LOGGER.warn("[JelloApi] Compute shader '{}' failed to compile, using the fragment shader:\n{}",
+                computeShader, GL20C.glGetShaderInfoLog(shader));
+            GL20C.glDeleteShader(shader);
+            return 0;
+        }
+        int program = GL20C.glCreateProgram();
+        GL20C.glAttachShader(program, shader);
+        GL20C.glLinkProgram(program);
+        GL20C.glDetachShader(program, shader);
+        GL20C.glDeleteShader(shader);
+        if (GL20C.glGetProgrami(program, GL20C.GL_LINK_STATUS) != GL11C.GL_TRUE) {
+            LOGGER.warn("[JelloApi] Compute shader '{}' failed to link, using the fragment shader:\n{}",
+                computeShader, GL20C.glGetProgramInfoLog(program));
+            GL20C.glDeleteProgram(program);
+            return 0;
+        }
+        return program;
+    }
+
+    // ── Frame ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Called in place of {@link PostEffectPass#render}.
+     *
+     * @return {@code false} if {@code pass} has no compute variant and vanilla should render it
+     */
+    public static boolean render(PostEffectPass pass, FrameGraphBuilder builder,
+                                 Map<Identifier, Handle<Framebuffer>> handles) {
+        ComputePass compute = PASSES.get(pass);
+        if (compute == null) return false;
+        compute.addTo(builder, handles, ((PostEffectPassAccessor) pass).jello$getUniformBuffers());
+        return true;
+    }
+
+    /** Called when {@code pass} is closed; deletes its compute program. */
+    public static void release(PostEffectPass pass) {
+        ComputePass compute = PASSES.remove(pass);
+        if (compute != null) GL20C.glDeleteProgram(compute.program);
+    }
+
+    /** Linear or nearest clamp-to-edge sampler object, shared by every compute pass. */
+    private static int sampler(boolean bilinear) {
+        if (linearSampler == 0) {
+            linearSampler = createSampler(GL11C.GL_LINEAR);
+            nearestSampler = createSampler(GL11C.GL_NEAREST);
+        }
+        return bilinear ? linearSampler : nearestSampler;
+    }
+
+    private static int createSampler(int filter) {
+        int sampler = GL33C.glGenSamplers();
+        GL33C.glSamplerParameteri(sampler, GL11C.GL_TEXTURE_MIN_FILTER, filter);
+        GL33C.glSamplerParameteri(sampler, GL11C.GL_TEXTURE_MAG_FILTER, filter);
+        GL33C.glSamplerParameteri(sampler, GL11C.GL_TEXTURE_WRAP_S, GL13C.GL_CLAMP_TO_EDGE);
+        GL33C.glSamplerParameteri(sampler, GL11C.GL_TEXTURE_WRAP_T, GL13C.GL_CLAMP_TO_EDGE);
+        return sampler;
+    }
+
+    /** A linked compute variant and where its inputs, blocks and output bind. */
+    private static final class ComputePass {
+
+        private final int program;
+        private final String name;
+        private final List<PassGraph.Sampler> samplers;
+        private final Identifier output;
+        /** Uniform location of each sampler, {@code -1} if the shader does not use it. */
+        private final int[] samplerLocations;
+        private final int outImageLocation;
+
+        ComputePass(int program, PassGraph.Pass pass) {
+            this.program = program;
+            this.name = pass.computeShader().toString();
+            this.samplers = pass.samplers();
+            this.output = pass.output();
+            this.samplerLocations = new int[samplers.size()];
+            for (int i = 0; i < samplerLocations.length; i++) {
+                samplerLocations[i] = GL20C.glGetUniformLocation(program, samplers.get(i).name() + "Sampler");
+            }
+            this.outImageLocation = GL20C.glGetUniformLocation(program, "OutImage");
+        }
+
+        /** Mirrors vanilla's pass: depends on every input, transfers the output. */
+        void addTo(FrameGraphBuilder builder, Map<Identifier, Handle<Framebuffer>> handles,
+                   Map<String, GpuBuffer> uniformBuffers) {
+            FramePass pass = builder.createPass(name);
+            List<Handle<Framebuffer>> inputs = new ArrayList<>(samplers.size());
+            for (PassGraph.Sampler sampler : samplers) {
+                Handle<Framebuffer> handle = handles.get(sampler.target());
+                if (handle == null) throw new IllegalStateException("Missing handle for target " + sampler.target());
+                pass.dependsOn(handle);
+                inputs.add(handle);
+            }
+            Handle<Framebuffer> out = handles.computeIfPresent(output, (id, handle) -> pass.transfer(handle));
+            if (out == null) throw new IllegalStateException("Missing handle for target " + output);
+            pass.setRenderer(() -> dispatch(inputs, out.get(), uniformBuffers));
+        }
+
+        private void dispatch(List<Handle<Framebuffer>> inputs, Framebuffer target, Map<String, GpuBuffer> uniformBuffers) {
+            GlStateManager._glUseProgram(program);
+            for (int i = 0; i < inputs.size(); i++) {
+                GlStateManager._activeTexture(GL13C.GL_TEXTURE0 + i);
+                GlStateManager._bindTexture(((GlTexture) inputs.get(i).get().getColorAttachment()).getGlId());
+                // A sampler object overrides the texture's filter without touching the state
+                // blaze3d tracks for it.
+                GL33C.glBindSampler(i, sampler(samplers.get(i).bilinear()));
+                if (samplerLocations[i] >= 0) GL20C.glUniform1i(samplerLocations[i], i);
+            }
+            int binding = 0;
+            for (Map.Entry<String, GpuBuffer> block : uniformBuffers.entrySet()) {
+                int index = GL31C.glGetUniformBlockIndex(program, block.getKey());
+                if (index == GL31C.GL_INVALID_INDEX) continue;
+                GL31C.glUniformBlockBinding(program, index, binding);
+                GL30C.glBindBufferBase(GL31C.GL_UNIFORM_BUFFER, binding,
+                    ((GlGpuBufferAccessor) block.getValue()).jello$getId());
+                binding++;
+            }
+            if (outImageLocation >= 0) GL20C.glUniform1i(outImageLocation, 0);
+            int texture = ((GlTexture) target.getColorAttachment()).getGlId();
+            GL42C.glBindImageTexture(0, texture, 0, false, 0, GL15C.GL_WRITE_ONLY, GL11C.GL_RGBA8);
+
+            GL43C.glDispatchCompute((target.textureWidth + GROUP_SIZE - 1) / GROUP_SIZE,
+                (target.textureHeight + GROUP_SIZE - 1) / GROUP_SIZE, 1);
+            // Later passes sample, draw into or blit from what this one stored.
+            GL42C.glMemoryBarrier(GL42C.GL_TEXTURE_FETCH_BARRIER_BIT | GL42C.GL_FRAMEBUFFER_BARRIER_BIT
+                | GL42C.GL_TEXTURE_UPDATE_BARRIER_BIT | GL42C.GL_SHADER_IMAGE_ACCESS_BARRIER_BIT);
+
+            GL42C.glBindImageTexture(0, 0, 0, false, 0, GL15C.GL_WRITE_ONLY, GL11C.GL_RGBA8);
+            // Outside a dispatch no unit has a sampler object bound – blaze3d filters through
+            // texture parameters – so unbinding ours restores it without querying GL.
+            for (int i = 0; i < inputs.size(); i++) {
+                GL33C.glBindSampler(i, 0);
+            }
+            GlStateManager._activeTexture(GL13C.GL_TEXTURE0);
+            GlStateManager._glUseProgram(0);
+            // The program and uniform-block bindings changed behind the encoder's back: make
+            // its next draw bind its program and every block again, even with the same pipeline.
+            ((GlCommandEncoderAccessor) RenderSystem.getDevice().createCommandEncoder()).jello$setCurrentProgram(null);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.mixin.PostEffectPassAccessor;
+import com.mojang.blaze3d.buffers.GpuBuffer;
+import com.mojang.blaze3d.systems.CommandEncoder;
+import com.mojang.blaze3d.systems.GpuDevice;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gl.PostEffectPass;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-effect writable uniform state.
+ *
+ * <p>On {@link #bind} every uniform block of a freshly loaded processor is swapped for
+ * a buffer created with {@link GpuBuffer#USAGE_COPY_DST}, seeded from a CPU-side shadow
+ * copy. Handles write into the shadow; {@link #upload()} pushes only dirty blocks before
+ * the chain renders. The replaced buffers are owned by the pass and closed with it.
+ *
+ * <p>The shader loader hands the same processor to every effect of one id. A block that
+ * already carries a writable buffer – installed by another effect of that id, or by an
+ * earlier load of this one – keeps it, so such effects share their uniforms and the last
+ * value uploaded wins.
+ *
+ * <p>Render-thread only, except {@link #handle}.
+ */
+final class DynamicUniforms {
+
+    /** A pass's uniform block: CPU shadow plus the GPU buffer it mirrors. */
+    static final class BlockBuffer {
+        final ByteBuffer shadow;
+        GpuBuffer buffer;
+        boolean dirty;
+
+        BlockBuffer(ByteBuffer shadow) {
+            this.shadow = shadow;
+        }
+    }
+
+    /** Buffers installed by any instance, so a later {@link #bind} reuses them instead of closing them. */
+    private static final Set<GpuBuffer> WRITABLE = Collections.newSetFromMap(new WeakHashMap<>());
+
+    /** Concurrent because handles may be looked up from any thread; everything else is render-thread only. */
+    private final Map<String, ManagedUniformImpl> handles = new ConcurrentHashMap<>();
+    private final List<BlockBuffer> blocks = new ArrayList<>();
+
+    /** Returns (creating if needed) the handle for {@code name}. */
+    ManagedUniformImpl handle(String name) {
+        return handles.computeIfAbsent(name, ManagedUniformImpl::new);
+    }
+
+    /**
+     * Resolves every handle against {@code layout} and installs writable buffers on
+     * {@code passes} (in JSON declaration order). Previously set values are re-applied
+     * before the buffers are created, so nothing needs uploading on the first frame.
+     */
+    void bind(List<PostEffectPass> passes, UniformBlockLayout layout) {
+        unbind();
+        if (layout.blocks().isEmpty()) return;
+
+        List<UniformBlockLayout.Block> resolved = new ArrayList<>();
+        for (UniformBlockLayout.Block block : layout.blocks()) {
+            if (block.passIndex() >= passes.size()) continue;
+            BlockBuffer bound = new BlockBuffer(block.createDefaults());
+            for (UniformBlockLayout.Member member : block.members()) {
+                handle(member.name()).addSlot(new ManagedUniformImpl.Slot(
+                    bound, member.offset(), member.type().components, member.type().integer));
+            }
+            resolved.add(block);
+            blocks.add(bound);
+        }
+
+        // Re-apply the last values so the buffers are created with them already in place.
+        for (ManagedUniformImpl handle : handles.values()) {
+            handle.apply();
+        }
+
+        GpuDevice device = RenderSystem.getDevice();
+        Map<Integer, Map<String, GpuBuffer>> replaced = new HashMap<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            UniformBlockLayout.Block block = resolved.get(i);
+            BlockBuffer bound = blocks.get(i);
+            bound.shadow.clear();
+            GpuBuffer installed = ((PostEffectPassAccessor) passes.get(block.passIndex()))
+                .jello$getUniformBuffers().get(block.name());
+            if (installed != null && !installed.isClosed() && WRITABLE.contains(installed)) {
+                // Shared with another effect of this id: write this effect's values on the next upload.
+                bound.buffer = installed;
+                bound.dirty = true;
+                continue;
+            }
+            bound.buffer = device.createBuffer(
+                () -> "Jello dynamic uniform " + block.name(),
+                GpuBuffer.USAGE_UNIFORM | GpuBuffer.USAGE_COPY_DST,
+                bound.shadow);
+            bound.dirty = false;
+            WRITABLE.add(bound.buffer);
+            replaced.computeIfAbsent(block.passIndex(), k -> new HashMap<>()).put(block.name(), bound.buffer);
+        }
+
+        for (Map.Entry<Integer, Map<String, GpuBuffer>> entry : replaced.entrySet()) {
+            PostEffectPassAccessor pass = (PostEffectPassAccessor) passes.get(entry.getKey());
+            Map<String, GpuBuffer> buffers = new HashMap<>(pass.jello$getUniformBuffers());
+            for (Map.Entry<String, GpuBuffer> bound : entry.getValue().entrySet()) {
+                // Only the vanilla, read-only buffer is replaced here; writable ones were reused above.
+                GpuBuffer old = buffers.put(bound.getKey(), bound.getValue());
+                if (old != null) old.close();
+            }
+            pass.jello$setUniformBuffers(buffers);
+        }
+    }
+
+    /** Uploads every block written since the last upload. */
+    void upload() {
+        CommandEncoder encoder = null;
+        for (int i = 0, n = blocks.size(); i < n; i++) {
+            BlockBuffer block = blocks.get(i);
+            if (!block.dirty) continue;
+            if (encoder == null) encoder = RenderSystem.getDevice().createCommandEncoder();
+            block.shadow.clear();
+            encoder.writeToBuffer(block.buffer.slice(), block.shadow);
+            block.dirty = false;
+        }
+    }
+
+    /** Forgets the current load's blocks. The GPU buffers are closed by their passes. */
+    void unbind() {
+        blocks.clear();
+        for (ManagedUniformImpl handle : handles.values()) {
+            handle.clearSlots();
+        }
+    }
+}
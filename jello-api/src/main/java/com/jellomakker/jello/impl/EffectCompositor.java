@@ -0,0 +1,302 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.api.managed.TargetFormat;
+import com.jellomakker.jello.mixin.PostEffectProcessorAccessor;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.client.render.FrameGraphBuilder;
+import net.minecraft.client.render.FramePass;
+import net.minecraft.client.util.Handle;
+import net.minecraft.client.util.ObjectAllocator;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the composited effects queued during a frame as one frame graph.
+ *
+ * <p>Composited effects only prepare and queue themselves in
+ * {@link ManagedShaderEffectImpl#render(float)}. After the last
+ * {@link com.jellomakker.jello.api.event.ShaderEffectRenderCallback} listener, {@link #flush}
+ * sorts them by priority and adds every processor's passes to one {@link FrameGraphBuilder}
+ * that shares a single {@code minecraft:main} node. So they run after every effect that
+ * rendered directly, whatever order the listeners were registered in.
+ *
+ * <p><b>Handoff.</b> An effect that cannot write {@code minecraft:main} in place typically
+ * renders into a full-size transient target and ends with a copy of it into main, which
+ * the next effect then reads. Within a graph that copy is skipped: the target itself
+ * becomes {@code minecraft:main} for the rest of the segment, so the next effect reads it
+ * directly. If any copy was skipped, one texture copy into the real main framebuffer ends
+ * the segment – n trailing copy passes become one blit. Effects in a segment that sample
+ * main's depth disable the handoff for it, as the handed-on target has none.
+ *
+ * <p>An effect whose {@link ChainRewrite} blits after rendering ends its graph, because
+ * the blit has to land before the next effect reads main. Each timed effect's GPU timer
+ * covers its own passes in the graph. Render-thread only.
+ */
+final class EffectCompositor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JelloApi");
+
+    private static final Comparator<ManagedShaderEffectImpl> ORDER =
+        Comparator.comparingInt(ManagedShaderEffectImpl::getCompositePriority)
+            .thenComparingLong(ManagedShaderEffectImpl::getCompositeOrder);
+
+    private final List<ManagedShaderEffectImpl> queued = new ArrayList<>();
+    /** Ties between equal priorities go to the effect composited first. */
+    private long joined;
+
+    /** Trailing copies skipped in the graph being built, with the target each one reads. */
+    private final Map<PostEffectPass, Identifier> handoffs = new IdentityHashMap<>();
+    /** The real main framebuffer's latest handle once a copy was skipped, else {@code null}. */
+    @Nullable private Handle<Framebuffer> realMain;
+
+    long nextOrder() {
+        return ++joined;
+    }
+
+    /** Queues {@code effect}, already prepared for this frame, to run in {@link #flush}. */
+    void enqueue(ManagedShaderEffectImpl effect) {
+        if (!queued.contains(effect)) queued.add(effect);
+    }
+
+    /** Runs and clears the queue. Called once per frame after all render callbacks. */
+    void flush(ObjectAllocator allocator) {
+        if (queued.isEmpty()) return;
+        Framebuffer main = MinecraftClient.getInstance().getFramebuffer();
+        if (main != null) {
+            queued.sort(ORDER);
+            List<ManagedShaderEffectImpl> segment = new ArrayList<>(queued.size());
+            for (ManagedShaderEffectImpl effect : queued) {
+                LoadedChain chain = effect.getChain();
+                if (chain == null) continue;   // released by a later listener
+                segment.add(effect);
+                if (chain.rewrite().blitCount() > 0) {
+                    run(segment, main, allocator);
+                    segment.clear();
+                }
+            }
+            if (!segment.isEmpty()) run(segment, main, allocator);
+        }
+        queued.clear();
+    }
+
+    /**
+     * Called in place of {@link PostEffectPass#render} while a segment's graph is built.
+     *
+     * @return {@code true} if {@code pass} is a skipped trailing copy; its source now stands in for main
+     */
+    boolean handOff(PostEffectPass pass, Map<Identifier, Handle<Framebuffer>> handles) {
+        if (handoffs.isEmpty()) return false;
+        Identifier source = handoffs.get(pass);
+        if (source == null) return false;
+        Handle<Framebuffer> handle = handles.get(source);
+        if (handle == null) return false;
+        if (realMain == null) realMain = handles.get(PostEffectProcessor.MAIN);
+        handles.put(PostEffectProcessor.MAIN, handle);
+        return true;
+    }
+
+    private void run(List<ManagedShaderEffectImpl> segment, Framebuffer main, ObjectAllocator allocator) {
+        List<LoadedChain> chains = new ArrayList<>(segment.size());
+        try {
+            int[] passes = planHandoffs(segment);
+            FrameGraphBuilder builder = new FrameGraphBuilder();
+            PostEffectProcessor.FramebufferSet targets = PostEffectProcessor.FramebufferSet.singleton(
+                PostEffectProcessor.MAIN, builder.createObjectNode("main", main));
+            for (ManagedShaderEffectImpl effect : segment) {
+                LoadedChain chain = effect.getChain();
+                chain.processor().render(builder, main.textureWidth, main.textureHeight, targets);
+                chains.add(chain);
+            }
+            if (realMain != null) {
+                addFinalCopy(builder, targets.get(PostEffectProcessor.MAIN), realMain);
+                passes[passes.length - 1]++;
+            }
+            SegmentTimers timers = SegmentTimers.start(segment, passes);
+            if (timers != null) {
+                builder.run(allocator, timers);
+                timers.finish();
+            } else {
+                builder.run(allocator);
+            }
+            for (LoadedChain chain : chains) {
+                chain.rewrite().afterRender(chain.processor(), main);
+            }
+        } catch (Exception e) {
+            if (segment.size() == 1) {
+                segment.get(0).onRenderFailure(e);
+                return;
+            }
+            // The failing processor cannot be told apart inside one graph. A reload
+            // invalidated all of them; anything else is narrowed down by rendering each
+            // effect on its own from the next frame.
+            LOGGER.warn("[JelloApi] Composited effects {} failed, {}: {}", locations(segment),
+                e instanceof IllegalStateException ? "will re-init" : "rendering them separately", e.getMessage());
+            for (ManagedShaderEffectImpl effect : segment) {
+                if (e instanceof IllegalStateException) {
+                    effect.releaseNow();
+                } else {
+                    effect.leaveComposite();
+                }
+            }
+        } finally {
+            handoffs.clear();
+            realMain = null;
+        }
+    }
+
+    /**
+     * Marks the trailing copies of {@code segment} that {@link #handOff} may skip.
+     *
+     * @return the number of passes each effect will run, in segment order
+     */
+    private int[] planHandoffs(List<ManagedShaderEffectImpl> segment) {
+        int[] passes = new int[segment.size()];
+        boolean depth = false;
+        for (ManagedShaderEffectImpl effect : segment) {
+            for (PassGraph.Pass pass : effect.getChain().graph().passes()) {
+                for (PassGraph.Sampler sampler : pass.samplers()) {
+                    if (sampler.depth() && sampler.target().equals(PostEffectProcessor.MAIN)) depth = true;
+                }
+            }
+        }
+        Set<Identifier> copyShaders = ReloadableShaderEffectManager.INSTANCE.getCopyShaders();
+        for (int i = 0; i < passes.length; i++) {
+            LoadedChain chain = segment.get(i).getChain();
+            passes[i] = chain.executedPassCount();
+            if (depth || copyShaders.isEmpty()) continue;
+            List<PostEffectPass> live = ((PostEffectProcessorAccessor) chain.processor()).jello$getPasses();
+            if (live.isEmpty()) continue;
+            PostEffectPass last = live.get(live.size() - 1);
+            Identifier source = trailingCopySource(chain, last, copyShaders);
+            if (source != null) {
+                handoffs.put(last, source);
+                passes[i]--;
+            }
+        }
+        return passes;
+    }
+
+    /**
+     * @return the target {@code last} copies into main, if it is a copy whose source is a
+     *         transient target of main's size and format; else {@code null}
+     */
+    private static @Nullable Identifier trailingCopySource(LoadedChain chain, PostEffectPass last, Set<Identifier> copyShaders) {
+        int index = chain.declaredPasses().indexOf(last);
+        if (index < 0 || index >= chain.graph().passes().size()) return null;
+        PassGraph.Pass pass = chain.graph().passes().get(index);
+        if (!pass.output().equals(PostEffectProcessor.MAIN) || pass.samplers().size() != 1 || pass.textureInputs()
+                || pass.hasUniforms() || !copyShaders.contains(pass.fragmentShader())) {
+            return null;
+        }
+        PassGraph.Sampler input = pass.samplers().get(0);
+        PassGraph.Target target = chain.graph().target(input.target());
+        if (input.depth() || target == null || !target.screenSized() || target.scale() != 1.0f
+                || target.format() != TargetFormat.RGBA8) {
+            return null;
+        }
+        // Promoted ping-pong targets are persistent now: handing them on would overwrite history.
+        PostEffectPipeline.Targets declared = ((PostEffectProcessorAccessor) chain.processor())
+            .jello$getInternalTargets().get(input.target());
+        return declared == null || declared.persistent() ? null : input.target();
+    }
+
+    /** Copies what now stands in for main into the real main framebuffer. */
+    private static void addFinalCopy(FrameGraphBuilder builder, Handle<Framebuffer> current, Handle<Framebuffer> realMain) {
+        FramePass pass = builder.createPass("jello handoff");
+        pass.dependsOn(current);
+        Handle<Framebuffer> out = pass.transfer(realMain);
+        pass.setRenderer(() -> {
+            Framebuffer src = current.get();
+            Framebuffer dst = out.get();
+            RenderSystem.getDevice().createCommandEncoder().copyTextureToTexture(src.getColorAttachment(),
+                dst.getColorAttachment(), 0, 0, 0, 0, 0, src.textureWidth, src.textureHeight);
+        });
+    }
+
+    private static List<String> locations(List<ManagedShaderEffectImpl> effects) {
+        List<String> out = new ArrayList<>(effects.size());
+        for (ManagedShaderEffectImpl effect : effects) {
+            out.add(effect.getLocation().toString());
+        }
+        return out;
+    }
+
+    /**
+     * Hands the graph's per-pass timestamps to the timer of the effect each pass belongs
+     * to. Passes run in the order the effects added them, so effect {@code i} owns the
+     * next {@code passes[i]} of them.
+     */
+    private static final class SegmentTimers implements FrameGraphBuilder.Profiler {
+
+        private final GpuTimer[] timers;
+        private final int[] passes;
+        private int current;
+        private int popped;
+
+        private SegmentTimers(GpuTimer[] timers, int[] passes) {
+            this.timers = timers;
+            this.passes = passes;
+        }
+
+        /**
+         * @return started timers for {@code segment}, or {@code null} when no effect in it is
+         *         timed; untimed effects get a {@code null} slot
+         */
+        static @Nullable SegmentTimers start(List<ManagedShaderEffectImpl> segment, int[] passes) {
+            GpuTimer[] timers = null;
+            for (int i = 0; i < segment.size(); i++) {
+                ManagedShaderEffectImpl effect = segment.get(i);
+                if (!effect.timed()) continue;
+                if (timers == null) timers = new GpuTimer[segment.size()];
+                timers[i] = effect.frameTimer();
+            }
+            if (timers == null) return null;
+            SegmentTimers segmentTimers = new SegmentTimers(timers, passes);
+            segmentTimers.begin();
+            segmentTimers.skipEmpty();
+            return segmentTimers;
+        }
+
+        @Override
+        public void pop(String location) {
+            if (current >= timers.length) return;
+            if (timers[current] != null) timers[current].pop(location);
+            popped++;
+            skipEmpty();
+        }
+
+        /** Ends every timer whose passes have all run and begins the next. */
+        private void skipEmpty() {
+            while (current < timers.length && popped >= passes[current]) {
+                if (timers[current] != null) timers[current].end();
+                popped = 0;
+                current++;
+                begin();
+            }
+        }
+
+        private void begin() {
+            if (current < timers.length && timers[current] != null) timers[current].begin(passes[current]);
+        }
+
+        /** Ends the open timer if the graph ran fewer passes than planned. */
+        void finish() {
+            if (current < timers.length && timers[current] != null) timers[current].end();
+            current = timers.length;
+        }
+    }
+}
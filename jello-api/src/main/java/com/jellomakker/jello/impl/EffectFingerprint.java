@@ -0,0 +1,107 @@
+package com.jellomakker.jello.impl;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.blaze3d.shaders.ShaderType;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Content hash of everything a post effect is built from: its JSON and the GLSL of every
+ * pass, including compute variants and files pulled in with {@code #moj_import}. Two equal fingerprints mean a
+ * reload would rebuild the effect identically, so {@link ReloadableShaderEffectManager}
+ * keeps it instead.
+ *
+ * <p>Effects that sample textures ({@code "location"} inputs) get no fingerprint: texture
+ * contents are not hashed, so they are always rebuilt. Safe to call from any thread.
+ */
+final class EffectFingerprint {
+
+    private static final String IMPORT = "#moj_import";
+
+    private EffectFingerprint() {}
+
+    /**
+     * @param json the effect's JSON, as read by {@link EffectJson}
+     * @return the SHA-256 fingerprint, or {@code null} if the effect cannot be fingerprinted
+     */
+    static byte @Nullable [] compute(ResourceManager resources, @Nullable JsonObject json) {
+        if (json == null || !json.has("passes")) return null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(json.toString().getBytes(StandardCharsets.UTF_8));
+            Set<Identifier> visited = new HashSet<>();
+            for (JsonElement element : json.getAsJsonArray("passes")) {
+                JsonObject pass = element.getAsJsonObject();
+                if (pass.has("inputs")) {
+                    for (JsonElement input : pass.getAsJsonArray("inputs")) {
+                        if (input.getAsJsonObject().has("location")) return null;
+                    }
+                }
+                Identifier vertex = Identifier.of(pass.get("vertex_shader").getAsString());
+                Identifier fragment = Identifier.of(pass.get("fragment_shader").getAsString());
+                if (!hashFile(digest, resources, ShaderType.VERTEX.idConverter().toResourcePath(vertex), visited)
+                        || !hashFile(digest, resources, ShaderType.FRAGMENT.idConverter().toResourcePath(fragment), visited)) {
+                    return null;
+                }
+                if (pass.has("compute_shader")) {
+                    Identifier compute = Identifier.of(pass.get("compute_shader").getAsString());
+                    if (!hashFile(digest, resources, ComputePasses.sourcePath(compute), visited)) return null;
+                }
+            }
+            return digest.digest();
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Hashes {@code file} and, depth first, its imports. Each file counts once. */
+    private static boolean hashFile(MessageDigest digest, ResourceManager resources, Identifier file,
+                                    Set<Identifier> visited) throws IOException {
+        if (!visited.add(file)) return true;
+        Optional<Resource> resource = resources.getResource(file);
+        if (resource.isEmpty()) return false;
+        String source;
+        try (InputStream in = resource.get().getInputStream()) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        digest.update((byte) 0);
+        digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update(source.getBytes(StandardCharsets.UTF_8));
+
+        for (String line : source.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.startsWith(IMPORT)) continue;
+            Identifier imported = importPath(file, trimmed.substring(IMPORT.length()).trim());
+            if (imported == null || !hashFile(digest, resources, imported, visited)) return false;
+        }
+        return true;
+    }
+
+    /** Resolves {@code <ns:path>} against {@code shaders/include/} and {@code "path"} against the importing file. */
+    private static @Nullable Identifier importPath(Identifier from, String spec) {
+        if (spec.length() < 2) return null;
+        String name = spec.substring(1, spec.length() - 1);
+        if (spec.charAt(0) == '<') {
+            Identifier id = Identifier.of(name);
+            return id.withPrefixedPath("shaders/include/");
+        }
+        if (spec.charAt(0) == '"') {
+            String path = from.getPath();
+            int slash = path.lastIndexOf('/');
+            return from.withPath(path.substring(0, slash + 1) + name);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.jellomakker.jello.impl;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Optional;
+
+/**
+ * Reads the raw post-effect JSON behind a managed effect.
+ *
+ * <p>Vanilla's parsed {@code PostEffectPipeline} drops uniform member names and is only
+ * reachable inside the shader loader, so jello-api re-reads the same resource once per
+ * load to derive uniform layouts and the pass graph. Effects declared in code are served
+ * from {@link BuiltEffectRegistry} without touching resources.
+ */
+final class EffectJson {
+
+    private EffectJson() {}
+
+    /** Resource path of the post-effect JSON for {@code effectId}. */
+    static Identifier resourceId(Identifier effectId) {
+        return effectId.withPath(p -> "post_effect/" + p + ".json");
+    }
+
+    /**
+     * @return the parsed JSON object, or {@code null} if the effect is neither built nor a resource
+     * @throws IOException if the resource cannot be read or is not a JSON object
+     */
+    static @Nullable JsonObject read(ResourceManager resources, Identifier effectId) throws IOException {
+        JsonObject built = BuiltEffectRegistry.get(effectId);
+        if (built != null) return built;
+        Optional<Resource> resource = resources.getResource(resourceId(effectId));
+        if (resource.isEmpty()) return null;
+        try (Reader reader = resource.get().getReader()) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed post-effect JSON: " + effectId, e);
+        }
+    }
+}
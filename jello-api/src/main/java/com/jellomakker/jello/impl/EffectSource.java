@@ -0,0 +1,31 @@
+package com.jellomakker.jello.impl;
+
+import com.google.gson.JsonObject;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Everything jello-api derives from an effect's JSON before touching the GPU. Pure CPU
+ * work on immutable inputs, so {@link ManagedShaderEffectImpl#initializeAsync()} builds it
+ * on a worker thread and only hands the result to the render thread.
+ *
+ * @param graph       the effect's targets and pass wiring
+ * @param layout      std140 layout of its uniform blocks
+ * @param fingerprint hash of the JSON and GLSL it was read from, or {@code null}
+ */
+record EffectSource(PassGraph graph, UniformBlockLayout layout, byte @Nullable [] fingerprint) {
+
+    /**
+     * Reads and parses the JSON behind {@code effectId}. Safe to call from any thread.
+     *
+     * @throws IOException if the resource cannot be read or is not a JSON object
+     */
+    static EffectSource read(ResourceManager resources, Identifier effectId) throws IOException {
+        JsonObject json = EffectJson.read(resources, effectId);
+        return new EffectSource(PassGraph.parse(json), UniformBlockLayout.parse(json),
+            EffectFingerprint.compute(resources, json));
+    }
+}
@@ -0,0 +1,153 @@
+package com.jellomakker.jello.impl;
+
+import net.minecraft.client.render.FrameGraphBuilder;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GL15C;
+import org.lwjgl.opengl.GL33C;
+
+import java.util.Arrays;
+
+/**
+ * Per-effect GPU timing with {@code GL_TIMESTAMP} queries.
+ *
+ * <p>A timestamp is written before the chain, after every pass (via the frame-graph
+ * {@link FrameGraphBuilder.Profiler} hook) and after the chain. Timestamps rather than
+ * {@code GL_TIME_ELAPSED} are used because elapsed-time queries cannot nest, and we want
+ * the effect and its passes from the same frame. Query sets rotate through a ring of
+ * {@link #LATENCY} frames; a set is only read when its results are already available,
+ * otherwise that sample is dropped – the render thread never blocks on the GPU.
+ *
+ * <p>Render-thread only. Only effects timed globally with {@link #ENABLED}, or on their own
+ * request, create an instance; no other effect issues any GL calls for timing.
+ */
+public final class GpuTimer implements FrameGraphBuilder.Profiler, AutoCloseable {
+
+    /** Compile-time switch: {@code -Djello.gpuTimers=true}. */
+    static final boolean ENABLED = Boolean.getBoolean("jello.gpuTimers");
+
+    /** Frames between issuing a query set and reading it back. */
+    static final int LATENCY = 4;
+    /** Number of frame samples kept for average and percentile. */
+    static final int WINDOW = 128;
+
+    /** The timer whose effect is currently inside {@code PostEffectProcessor.render}, if any. */
+    private static @Nullable GpuTimer active;
+
+    private final int[][] queries = new int[LATENCY][];
+    private final int[] used = new int[LATENCY];
+    private int slot;
+
+    private final double[] samples = new double[WINDOW];
+    private int sampleCount;
+    private int sampleHead;
+    private double lastMs;
+    /** Scratch for {@link #p99Ms()}, sorted again only after a new sample. */
+    private final double[] sorted = new double[WINDOW];
+    private double p99Ms;
+    private boolean p99Stale;
+    private double[] passMs = new double[0];
+
+    /** Resolves the set issued {@link #LATENCY} frames ago and writes the chain-start timestamp. */
+    void begin(int passCount) {
+        slot = (slot + 1) % LATENCY;
+        resolve(slot);
+        int capacity = passCount + 2;
+        if (queries[slot] == null || queries[slot].length < capacity) {
+            if (queries[slot] != null) GL15C.glDeleteQueries(queries[slot]);
+            queries[slot] = new int[capacity];
+            GL15C.glGenQueries(queries[slot]);
+        }
+        used[slot] = 0;
+        stamp();
+        active = this;
+    }
+
+    /** Writes the chain-end timestamp. */
+    void end() {
+        active = null;
+        stamp();
+    }
+
+    /** @return the profiler the frame graph should report passes to, or {@code null} */
+    public static @Nullable FrameGraphBuilder.Profiler activeProfiler() {
+        return active;
+    }
+
+    @Override
+    public void pop(String location) {
+        stamp();
+    }
+
+    private void stamp() {
+        int[] set = queries[slot];
+        if (used[slot] < set.length) GL33C.glQueryCounter(set[used[slot]++], GL33C.GL_TIMESTAMP);
+    }
+
+    private void resolve(int s) {
+        int[] set = queries[s];
+        int n = used[s];
+        if (set == null || n < 2) return;
+        if (GL15C.glGetQueryObjecti(set[n - 1], GL15C.GL_QUERY_RESULT_AVAILABLE) == 0) return;
+
+        long first = GL33C.glGetQueryObjecti64(set[0], GL15C.GL_QUERY_RESULT);
+        long prev = first;
+        if (passMs.length != n - 2) passMs = new double[Math.max(0, n - 2)];
+        for (int i = 1; i < n; i++) {
+            long t = GL33C.glGetQueryObjecti64(set[i], GL15C.GL_QUERY_RESULT);
+            if (i < n - 1) {
+                double ms = (t - prev) / 1_000_000.0;
+                passMs[i - 1] = passMs[i - 1] == 0 ? ms : passMs[i - 1] * 0.9 + ms * 0.1;
+            }
+            prev = t;
+        }
+        lastMs = (prev - first) / 1_000_000.0;
+        samples[sampleHead] = lastMs;
+        sampleHead = (sampleHead + 1) % WINDOW;
+        if (sampleCount < WINDOW) sampleCount++;
+        p99Stale = true;
+        used[s] = 0;
+    }
+
+    /** Deletes all queries; results in flight are discarded. */
+    @Override
+    public void close() {
+        if (active == this) active = null;
+        for (int i = 0; i < LATENCY; i++) {
+            if (queries[i] != null) GL15C.glDeleteQueries(queries[i]);
+            queries[i] = null;
+            used[i] = 0;
+        }
+    }
+
+    // ── Results ───────────────────────────────────────────────────────────────
+
+    double lastMs() {
+        return lastMs;
+    }
+
+    double averageMs() {
+        if (sampleCount == 0) return 0;
+        double sum = 0;
+        for (int i = 0; i < sampleCount; i++) sum += samples[i];
+        return sum / sampleCount;
+    }
+
+    double p99Ms() {
+        if (sampleCount == 0) return 0;
+        if (p99Stale) {
+            System.arraycopy(samples, 0, sorted, 0, sampleCount);
+            Arrays.sort(sorted, 0, sampleCount);
+            p99Ms = sorted[Math.min(sampleCount - 1, (int) Math.ceil(sampleCount * 0.99) - 1)];
+            p99Stale = false;
+        }
+        return p99Ms;
+    }
+
+    int sampleCount() {
+        return sampleCount;
+    }
+
+    double passMs(int pass) {
+        return pass >= 0 && pass < passMs.length ? passMs[pass] : 0;
+    }
+}
@@ -0,0 +1,136 @@
+package com.jellomakker.jello.impl;
+
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Cleaner;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reclaims the GPU resources of {@link ManagedShaderEffectImpl}s that become unreachable
+ * without {@link ReloadableShaderEffectManager#dispose}, and counts live GPU objects.
+ *
+ * <p>Each effect registers a {@link Handle} with a {@link Cleaner}. The handle mirrors the
+ * effect's processor and timer but holds no reference to the effect itself. Closing the
+ * processor also frees its persistent targets. When the effect is
+ * collected, the cleaner thread only queues the handle; {@link #drain()} closes what it
+ * still owns on the render thread at the start of the next frame.
+ *
+ * <p>Start the client with {@code -Djello.leakDebug=true} to record where every effect was
+ * created and log that stack trace when it leaks. Off by default, since it captures a stack
+ * trace per {@code manage()} call.
+ */
+final class LeakTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JelloApi");
+
+    /** Compile-time switch: {@code -Djello.leakDebug=true}. */
+    static final boolean DEBUG = Boolean.getBoolean("jello.leakDebug");
+
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final Queue<Handle> LEAKED = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicInteger LIVE_PROCESSORS = new AtomicInteger();
+    private static final AtomicInteger LIVE_TIMERS = new AtomicInteger();
+    private static final AtomicInteger LEAK_COUNT = new AtomicInteger();
+
+    private LeakTracker() {}
+
+    /**
+     * The GPU state one effect owns. Written by the effect on the render thread; read by
+     * the cleaner thread only to decide whether there is anything to reclaim.
+     */
+    static final class Handle implements Runnable {
+
+        private final Identifier location;
+        @Nullable private final Throwable site;
+        @Nullable volatile AutoCloseable processor;
+        @Nullable volatile AutoCloseable timer;
+
+        private Handle(Identifier location, @Nullable Throwable site) {
+            this.location = location;
+            this.site = site;
+        }
+
+        /** Cleaner thread: the effect is unreachable. No GL calls here. */
+        @Override
+        public void run() {
+            if (processor != null || timer != null) LEAKED.add(this);
+        }
+    }
+
+    /** Starts tracking {@code effect}; keep the returned handle up to date. */
+    static Handle track(Object effect, Identifier location) {
+        Handle handle = new Handle(location, DEBUG ? new Throwable("Managed effect created here") : null);
+        CLEANER.register(effect, handle);
+        return handle;
+    }
+
+    /** Render thread: closes whatever leaked effects still owned. */
+    static void drain() {
+        Handle handle;
+        while ((handle = LEAKED.poll()) != null) {
+            LEAK_COUNT.incrementAndGet();
+            if (handle.site != null) {
+                LOGGER.warn("[JelloApi] Shader effect '{}' was garbage-collected without dispose(); closing it",
+                    handle.location, handle.site);
+            } else {
+                LOGGER.warn("[JelloApi] Shader effect '{}' was garbage-collected without dispose(); closing it "
+                    + "(start with -Djello.leakDebug=true to see where it was created)", handle.location);
+            }
+            AutoCloseable processor = handle.processor;
+            handle.processor = null;
+            if (processor != null) {
+                if (processor instanceof PostEffectProcessor p) ReloadableShaderEffectManager.INSTANCE.unretain(p);
+                close(processor);
+                processorClosed();
+            }
+            AutoCloseable timer = handle.timer;
+            handle.timer = null;
+            if (timer != null) {
+                close(timer);
+                timerClosed();
+            }
+        }
+    }
+
+    private static void close(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // Best effort – may already be closed.
+        }
+    }
+
+    // ── Live object counts ────────────────────────────────────────────────────
+
+    static void processorOpened() {
+        LIVE_PROCESSORS.incrementAndGet();
+    }
+
+    static void processorClosed() {
+        LIVE_PROCESSORS.decrementAndGet();
+    }
+
+    static void timerOpened() {
+        LIVE_TIMERS.incrementAndGet();
+    }
+
+    static void timerClosed() {
+        LIVE_TIMERS.decrementAndGet();
+    }
+
+    /** Processors owned by managed or cached effects, plus GPU timers. */
+    static int liveGpuObjects() {
+        return LIVE_PROCESSORS.get() + LIVE_TIMERS.get();
+    }
+
+    static int leakCount() {
+        return LEAK_COUNT.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.mixin.PostEffectProcessorAccessor;
+import com.mojang.blaze3d.systems.CommandEncoder;
+import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A loaded {@link PostEffectProcessor} together with everything jello-api derived from
+ * its JSON at load time. Travels with the processor into and out of the {@link ProcessorCache}.
+ *
+ * @param processor      the vanilla processor, possibly rewritten by {@link ChainRewrite}
+ * @param layout         std140 layout of its uniform blocks
+ * @param graph          its declared targets and passes, for re-sizing scaled targets
+ * @param declaredPasses the pass list in JSON order, before any rewrite
+ * @param rewrite        the copy-pass rewrite applied to {@code processor}
+ * @param formats        declared target formats, resolved against the backend
+ * @param fingerprint    {@link EffectFingerprint} of the sources, or {@code null} to always rebuild on reload
+ */
+record LoadedChain(PostEffectProcessor processor, UniformBlockLayout layout, PassGraph graph,
+                   List<PostEffectPass> declaredPasses, ChainRewrite rewrite, TargetFormats formats,
+                   byte @Nullable [] fingerprint) {
+
+    /**
+     * Original pass lists, keyed by processor. The shader loader hands out the same cached
+     * instance on every load, so after a rewrite the live list no longer matches the JSON.
+     */
+    private static final Map<PostEffectProcessor, List<PostEffectPass>> DECLARED = new WeakHashMap<>();
+
+    /**
+     * Closes a processor's passes and targets. Only the registry benchmark replaces it, so
+     * effects can be released without a GPU device.
+     */
+    static Consumer<PostEffectProcessor> closer = PostEffectProcessor::close;
+
+    /** Returns {@code processor}'s pass list as declared in JSON, captured on first sight. */
+    static List<PostEffectPass> declaredPasses(PostEffectProcessor processor) {
+        return DECLARED.computeIfAbsent(processor,
+            p -> List.copyOf(((PostEffectProcessorAccessor) p).jello$getPasses()));
+    }
+
+    /** Closes the processor. Best effort: it may already be closed. */
+    void close() {
+        try {
+            closer.accept(processor);
+        } catch (Exception ignored) {
+            // Best effort – may already be closed.
+        }
+    }
+
+    int executedPassCount() {
+        return declaredPasses.size() - rewrite.removedPassCount();
+    }
+
+    /**
+     * Clears every allocated persistent target to its declared clear colour, so history
+     * effects start over as if freshly loaded. One clear per target, no reallocation.
+     */
+    void clearHistory() {
+        PostEffectProcessorAccessor accessor = (PostEffectProcessorAccessor) processor;
+        Map<Identifier, PostEffectPipeline.Targets> targets = accessor.jello$getInternalTargets();
+        CommandEncoder encoder = null;
+        for (Map.Entry<Identifier, Framebuffer> entry : accessor.jello$getFramebuffers().entrySet()) {
+            PostEffectPipeline.Targets target = targets.get(entry.getKey());
+            Framebuffer fb = entry.getValue();
+            if (target == null || !target.persistent() || fb.getColorAttachment() == null) continue;
+            if (encoder == null) encoder = RenderSystem.getDevice().createCommandEncoder();
+            encoder.clearColorTexture(fb.getColorAttachment(), target.clearColor());
+        }
+    }
+}
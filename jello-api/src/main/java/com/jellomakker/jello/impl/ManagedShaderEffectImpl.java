@@ -1,17 +1,33 @@
 package com.jellomakker.jello.impl;
 
 import com.jellomakker.jello.api.managed.ManagedShaderEffect;
+import com.jellomakker.jello.api.managed.ManagedUniform;
+import com.jellomakker.jello.api.managed.ShaderEffectStats;
+import com.jellomakker.jello.api.managed.TargetInfo;
+import com.jellomakker.jello.api.util.GlHelper;
+import com.jellomakker.jello.impl.jfr.ShaderFailureEvent;
+import com.jellomakker.jello.impl.jfr.ShaderLoadEvent;
+import com.jellomakker.jello.impl.jfr.ShaderReleaseEvent;
+import com.jellomakker.jello.mixin.PostEffectPassAccessor;
+import com.jellomakker.jello.mixin.PostEffectProcessorAccessor;
+import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
 import net.minecraft.client.gl.PostEffectProcessor;
 import net.minecraft.client.render.DefaultFramebufferSet;
-import net.minecraft.client.util.ObjectAllocator;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Concrete implementation of {@link ManagedShaderEffect}.
@@ -24,35 +40,73 @@ public class ManagedShaderEffectImpl implements ManagedShaderEffect {
 
     private final Identifier location;
     private final Consumer<ManagedShaderEffect> initCallback;
+    private final DynamicUniforms uniforms = new DynamicUniforms();
+    private final ShaderEffectStats stats = new Stats();
+    @Nullable private GpuTimer timer;
 
-    @Nullable private PostEffectProcessor processor;
+    /** Volatile so a reload can be planned against it off-thread; written on the render thread. */
+    @Nullable private volatile LoadedChain chain;
     private boolean errored;
+    /** Volatile so {@link #isSuspended()} is current off the render thread; written on it. */
+    private volatile boolean suspended;
+    /** Set on resume; persistent targets are cleared before the next frame renders. */
+    private boolean historyStale;
+    /** In-flight {@link #initializeAsync()}, or {@code null}. Render-thread only. */
+    @Nullable private CompletableFuture<ManagedShaderEffect> pending;
+    /** Bumped by {@link #releaseNow()}, so an async load started before it is dropped. */
+    private int generation;
+    /** The manager's size generation that scaled targets were last resolved for. */
+    private int sizedGeneration;
+    /** Set by {@link #setGpuTimingEnabled}; timing is also on with {@link GpuTimer#ENABLED}. */
+    private boolean timing;
+    /** Set while this effect is part of the shared composite chain. Render-thread only. */
+    private boolean composited;
+    private int compositePriority;
+    private long compositeOrder;
+    /** The manager's frame this effect last rendered or was loaded in; orders budget releases. */
+    private int lastRenderFrame;
+
+    /** Mirrors the processor of {@link #chain} and {@link #timer} so they can be closed if this effect leaks. */
+    private final LeakTracker.Handle leak;
 
     public ManagedShaderEffectImpl(Identifier location, Consumer<ManagedShaderEffect> initCallback) {
         this.location = location;
         this.initCallback = initCallback;
+        this.leak = LeakTracker.track(this, location);
     }
 
     // ── Lifecycle ──────────────────────────────────────────────────────────────
 
     @Override
     public @Nullable PostEffectProcessor getShaderEffect() {
-        if (processor == null && !errored) {
+        if (chain == null && pending != null) return null;
+        if (chain == null && !errored && !adoptCached()) {
             try {
                 initialize();
             } catch (IOException ignored) {
                 // already logged in initialize()
             }
         }
-        return processor;
+        return chain != null ? chain.processor() : null;
     }
 
     @Override
     public void initialize() throws IOException {
-        release();
+        initialize(null);
+    }
+
+    /**
+     * Loads the processor on the render thread.
+     *
+     * @param source the effect's parsed JSON if it was read ahead, else {@code null}
+     */
+    private void initialize(@Nullable EffectSource source) throws IOException {
+        releaseNow();
         errored = false;
         MinecraftClient mc = MinecraftClient.getInstance();
         if (mc == null || mc.getShaderLoader() == null) return;
+        ShaderLoadEvent event = new ShaderLoadEvent();
+        event.begin();
         try {
             PostEffectProcessor loaded = mc.getShaderLoader().loadPostEffect(location, DefaultFramebufferSet.MAIN_ONLY);
             if (loaded == null) {
@@ -60,23 +114,56 @@ public class ManagedShaderEffectImpl implements ManagedShaderEffect {
                 this.errored = true;
                 throw new IOException("Shader load returned null: " + location);
             }
-            this.processor = loaded;
+            this.sizedGeneration = ReloadableShaderEffectManager.INSTANCE.getSizeGeneration();
+            setChain(prepare(mc, loaded, source));
+            LeakTracker.processorOpened();
+            precompilePrograms(chain);
             this.initCallback.accept(this);
-            LOGGER.debug("[JelloApi] Loaded shader effect: {}", location);
+            LOGGER.debug("[JelloApi] Loaded shader effect: {} ({} of {} passes after rewrite)",
+                location, chain.executedPassCount(), chain.declaredPasses().size());
+            commitLoad(event, false, null);
         } catch (IOException e) {
             LOGGER.error("[JelloApi] Failed to load shader effect '{}': {}", location, e.getMessage());
             this.errored = true;
+            commitLoad(event, false, e);
             throw e;
         } catch (Exception e) {
             LOGGER.error("[JelloApi] Failed to load shader effect '{}': {}", location, e.getMessage());
             this.errored = true;
+            commitLoad(event, false, e);
             throw new IOException("Shader load failed: " + location, e);
         }
     }
 
+    /**
+     * Compiles and links the program of every pass that will run, which the backend would
+     * otherwise do lazily inside the first {@link #render(float)} that draws it. Programs
+     * already linked, or restored by the {@link ProgramBinaryCache}, cost a lookup.
+     */
+    private static void precompilePrograms(LoadedChain chain) {
+        for (PostEffectPass pass : ((PostEffectProcessorAccessor) chain.processor()).jello$getPasses()) {
+            RenderSystem.getDevice().precompilePipeline(((PostEffectPassAccessor) pass).jello$getPipeline(), null);
+        }
+    }
+
+    /** Completes {@code event} for this effect; failures are also reported as a {@link ShaderFailureEvent}. */
+    private void commitLoad(ShaderLoadEvent event, boolean cached, @Nullable Exception failure) {
+        if (failure != null) ShaderFailureEvent.emit(location, "load", failure.getMessage());
+        if (!event.shouldCommit()) return;
+        event.effect = location.toString();
+        event.cached = cached;
+        event.success = failure == null;
+        if (chain != null) {
+            event.declaredPasses = chain.declaredPasses().size();
+            event.executedPasses = chain.executedPassCount();
+        }
+        if (failure != null) event.failure = failure.getMessage();
+        event.commit();
+    }
+
     @Override
     public boolean isInitialized() {
-        return processor != null;
+        return chain != null;
     }
 
     @Override
@@ -84,81 +171,442 @@ public class ManagedShaderEffectImpl implements ManagedShaderEffect {
         return errored;
     }
 
+    @Override
+    public CompletableFuture<ManagedShaderEffect> initializeAsync() {
+        RenderCommandQueue commands = ReloadableShaderEffectManager.INSTANCE.getCommandQueue();
+        if (!commands.isRenderThread()) {
+            // Start the load from the render thread; callers still get the load's own future.
+            return CompletableFuture.supplyAsync(this::initializeAsync, commands::submit)
+                .thenCompose(Function.identity());
+        }
+        if (chain != null) return CompletableFuture.completedFuture(this);
+        if (pending != null) return pending;
+        MinecraftClient mc = MinecraftClient.getInstance();
+        if (mc == null || mc.getShaderLoader() == null) return CompletableFuture.completedFuture(this);
+        if (adoptCached()) return CompletableFuture.completedFuture(this);
+
+        int started = generation;
+        CompletableFuture<ManagedShaderEffect> future = CompletableFuture
+            .supplyAsync(() -> {
+                try {
+                    return EffectSource.read(mc.getResourceManager(), location);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, Util.getMainWorkerExecutor())
+            .handleAsync((source, failure) -> {
+                if (started != generation) return this;   // released meanwhile; back to lazy loading
+                try {
+                    // A failed read is retried inside prepare(), which logs and degrades as usual.
+                    // Programs are linked here too, so the future completes with them ready.
+                    initialize(failure == null ? source : null);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    pending = null;
+                }
+                return this;
+            }, mc);
+        // If the read finished before handleAsync was attached, the last stage already ran inline.
+        if (!future.isDone()) pending = future;
+        return future;
+    }
+
     @Override
     public void release() {
+        ReloadableShaderEffectManager.INSTANCE.getCommandQueue().submit(this::releaseNow);
+    }
+
+    /** Render thread: {@link #release()} without going through the command queue. */
+    void releaseNow() {
+        generation++;
+        pending = null;
         closeProcessor();
         errored = false;
     }
 
+    @Override
+    public void suspend() {
+        ReloadableShaderEffectManager.INSTANCE.getCommandQueue().submit(() -> suspended = true);
+    }
+
+    @Override
+    public void resume() {
+        ReloadableShaderEffectManager.INSTANCE.getCommandQueue().submit(() -> {
+            if (!suspended) return;
+            suspended = false;
+            historyStale = true;
+        });
+    }
+
+    @Override
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Derives uniform layout and pass graph from the effect's JSON, sizes scaled targets,
+     * installs writable uniform buffers, shares identical programs, applies the copy-pass
+     * rewrite, resolves target formats and compiles compute variants. A failure here only costs those extras – the
+     * effect still renders as vanilla loaded it.
+     *
+     * @param source the effect's parsed JSON if it was read ahead, else it is read here
+     */
+    private LoadedChain prepare(MinecraftClient mc, PostEffectProcessor loaded, @Nullable EffectSource source) {
+        List<PostEffectPass> declared = LoadedChain.declaredPasses(loaded);
+        UniformBlockLayout layout = UniformBlockLayout.EMPTY;
+        ChainRewrite rewrite = ChainRewrite.NONE;
+        PassGraph graph = PassGraph.EMPTY;
+        TargetFormats formats;
+        try {
+            if (source == null) source = EffectSource.read(mc.getResourceManager(), location);
+            graph = source.graph();
+            TargetScaling.apply(loaded, graph, GlHelper.getFramebufferWidth(), GlHelper.getFramebufferHeight());
+            layout = source.layout();
+            uniforms.bind(declared, layout);
+            ReloadableShaderEffectManager manager = ReloadableShaderEffectManager.INSTANCE;
+            manager.getProgramCache().canonicalize(declared);
+            if (manager.isChainOptimizationEnabled()) {
+                rewrite = ChainRewrite.plan(graph, manager.getCopyShaders());
+                rewrite.apply(loaded, declared);
+            }
+            formats = TargetFormats.resolve(graph, loaded);
+            ComputePasses.attach(location, graph, loaded, declared, mc.getResourceManager());
+        } catch (Exception e) {
+            LOGGER.warn("[JelloApi] Load-time optimizations unavailable for '{}': {}", location, e.getMessage());
+            uniforms.unbind();
+            ((PostEffectProcessorAccessor) loaded).jello$setPasses(declared);
+            return new LoadedChain(loaded, UniformBlockLayout.EMPTY, graph, declared, ChainRewrite.NONE,
+                TargetFormats.NONE, null);
+        }
+        return new LoadedChain(loaded, layout, graph, declared, rewrite, formats, source.fingerprint());
+    }
+
+    /**
+     * Takes a warm chain for this location out of the manager's cache, if one was
+     * parked by an earlier {@link ReloadableShaderEffectManager#dispose}.
+     *
+     * @return {@code true} if a cached chain was adopted
+     */
+    private boolean adoptCached() {
+        LoadedChain cached = ReloadableShaderEffectManager.INSTANCE.getProcessorCache().take(location);
+        if (cached == null) return false;
+        ShaderLoadEvent event = new ShaderLoadEvent();
+        event.begin();
+        setChain(cached);
+        // Parked at whatever size was current then; re-resolve on the first frame.
+        this.sizedGeneration = ReloadableShaderEffectManager.INSTANCE.getSizeGeneration() - 1;
+        try {
+            uniforms.bind(cached.declaredPasses(), cached.layout());
+        } catch (Exception e) {
+            LOGGER.warn("[JelloApi] Dynamic uniforms unavailable for '{}': {}", location, e.getMessage());
+            uniforms.unbind();
+        }
+        this.initCallback.accept(this);
+        LOGGER.debug("[JelloApi] Reused cached shader effect: {}", location);
+        commitLoad(event, true, null);
+        return true;
+    }
+
+    /**
+     * Hands the live chain over to the caller without closing it and marks this
+     * effect uninitialized. Returns {@code null} if there is nothing worth keeping.
+     */
+    @Nullable LoadedChain detachChain() {
+        if (chain == null || errored) return null;
+        LoadedChain detached = chain;
+        uniforms.unbind();
+        setChain(null);
+        commitRelease(true);
+        return detached;
+    }
+
     /** Close the GPU-side resources without resetting the error flag. */
     private void closeProcessor() {
-        if (processor != null) {
-            try {
-                processor.close();
-            } catch (Exception ignored) {
-                // Best effort – may already be closed.
-            }
-            processor = null;
+        uniforms.unbind();
+        if (timer != null) {
+            timer.close();
+            setTimer(null);
+            LeakTracker.timerClosed();
+        }
+        if (chain != null) {
+            ReloadableShaderEffectManager.INSTANCE.unretain(chain.processor());
+            chain.close();
+            setChain(null);
+            LeakTracker.processorClosed();
+            commitRelease(false);
+        }
+    }
+
+    private void setChain(@Nullable LoadedChain chain) {
+        this.chain = chain;
+        leak.processor = chain != null ? chain.processor() : null;
+        if (chain != null) lastRenderFrame = ReloadableShaderEffectManager.INSTANCE.getFrame();
+    }
+
+    private void setTimer(@Nullable GpuTimer timer) {
+        this.timer = timer;
+        leak.timer = timer;
+    }
+
+    /** Returns this effect's GPU timer, opening it on first use. Only if {@link #timed()}. */
+    GpuTimer frameTimer() {
+        if (timer == null) {
+            setTimer(new GpuTimer());
+            LeakTracker.timerOpened();
         }
+        return timer;
+    }
+
+    private void commitRelease(boolean parked) {
+        ShaderReleaseEvent event = new ShaderReleaseEvent();
+        if (!event.shouldCommit()) return;
+        event.effect = location.toString();
+        event.parked = parked;
+        event.commit();
     }
 
     // ── Rendering ─────────────────────────────────────────────────────────────
 
     @Override
     public void render(float tickDelta) {
-        if (errored) return;
+        if (errored || suspended) return;
 
         PostEffectProcessor p = getShaderEffect();
         if (p == null) return;
+        LoadedChain c = chain;
+        lastRenderFrame = ReloadableShaderEffectManager.INSTANCE.getFrame();
 
         MinecraftClient mc = MinecraftClient.getInstance();
         if (mc.getFramebuffer() == null) return;
 
-        // MC 1.21.8: render() takes (Framebuffer, ObjectAllocator) — uniforms are
-        // baked into GPU buffers from the post_effect JSON at load time.
+        // MC 1.21.8: render() takes (Framebuffer, ObjectAllocator). Dirty uniform blocks
+        // are uploaded first; transient targets are borrowed from the shared pool so
+        // steady-state frames allocate nothing.
         try {
-            p.render(mc.getFramebuffer(), ObjectAllocator.TRIVIAL);
-        } catch (IllegalStateException e) {
+            if (composited) {
+                // Runs with the other composited effects once every listener has returned.
+                prepareFrame(p, c, mc.getFramebuffer());
+                ReloadableShaderEffectManager.INSTANCE.getCompositor().enqueue(this);
+                return;
+            }
+            boolean timed = timed();
+            if (timed) frameTimer().begin(c.executedPassCount());
+            prepareFrame(p, c, mc.getFramebuffer());
+            p.render(mc.getFramebuffer(), ReloadableShaderEffectManager.INSTANCE.getTargetPool());
+            c.rewrite().afterRender(p, mc.getFramebuffer());
+            if (timed) timer.end();
+        } catch (Exception e) {
+            onRenderFailure(e);
+        }
+    }
+
+    /** Uploads dirty uniforms and brings targets up to date before the chain runs. */
+    private void prepareFrame(PostEffectProcessor p, LoadedChain c, Framebuffer main) {
+        uniforms.upload();
+        int sizeGeneration = ReloadableShaderEffectManager.INSTANCE.getSizeGeneration();
+        if (sizedGeneration != sizeGeneration) {
+            // Resized since the last frame: only scaled targets need new sizes. Vanilla
+            // re-creates persistent targets whose size changed; programs are untouched.
+            sizedGeneration = sizeGeneration;
+            TargetScaling.apply(p, c.graph(), main.textureWidth, main.textureHeight);
+        }
+        c.formats().ensure(p, main.textureWidth, main.textureHeight);
+        if (historyStale) {
+            c.clearHistory();
+            historyStale = false;
+        }
+    }
+
+    /** Handles an exception thrown while this effect's chain ran, alone or composited. */
+    void onRenderFailure(Exception e) {
+        if (e instanceof IllegalStateException) {
             // GPU buffers were freed during a resource reload (e.g. texture pack change).
             // Mark for lazy re-initialization on the next frame.
             LOGGER.warn("[JelloApi] Shader buffer invalidated during reload, will re-init: {}", location);
-            release();
-        } catch (Exception e) {
+            ShaderFailureEvent.emit(location, "invalidated", e.getMessage());
+            releaseNow();
+        } else {
             // Catch pipeline creation failures from alternative renderers (e.g. VulkanMod)
             // so we don't crash the game.  Disable this effect permanently.
             LOGGER.error("[JelloApi] Shader render failed for '{}', disabling: {}", location, e.getMessage());
+            ShaderFailureEvent.emit(location, "render", e.getMessage());
             closeProcessor();
             errored = true;   // Set AFTER closeProcessor so it sticks — stops retry loop.
         }
     }
 
+    // ── Compositing ───────────────────────────────────────────────────────────
+
+    /** Render thread: from now on {@link #render(float)} queues this effect on the compositor. */
+    void joinComposite(int priority, long order) {
+        if (!composited) compositeOrder = order;
+        compositePriority = priority;
+        composited = true;
+    }
+
+    /** Render thread: renders on its own again. */
+    void leaveComposite() {
+        composited = false;
+    }
+
+    int getCompositePriority() {
+        return compositePriority;
+    }
+
+    long getCompositeOrder() {
+        return compositeOrder;
+    }
+
+    // ── Diagnostics ───────────────────────────────────────────────────────────
+
+    @Override
+    public int getDeclaredPassCount() {
+        return chain != null ? chain.declaredPasses().size() : 0;
+    }
+
+    @Override
+    public void setGpuTimingEnabled(boolean enabled) {
+        RenderCommandQueue commands = ReloadableShaderEffectManager.INSTANCE.getCommandQueue();
+        if (commands.isRenderThread()) {
+            applyGpuTiming(enabled);   // no command per call for callers that set it every frame
+        } else {
+            commands.submit(() -> applyGpuTiming(enabled));
+        }
+    }
+
+    private void applyGpuTiming(boolean enabled) {
+        if (timing == enabled) return;
+        timing = enabled;
+        if (!timed() && timer != null) {
+            timer.close();
+            setTimer(null);
+            LeakTracker.timerClosed();
+        }
+    }
+
+    /** @return {@code true} if this effect issues GPU timer queries */
+    boolean timed() {
+        return timing || GpuTimer.ENABLED;
+    }
+
+    @Override
+    public int getPassCount() {
+        return chain != null ? chain.executedPassCount() : 0;
+    }
+
+    @Override
+    public ShaderEffectStats getStats() {
+        return stats;
+    }
+
+    /** Live view over this effect's timer and chain. */
+    private final class Stats implements ShaderEffectStats {
+
+        @Override
+        public boolean isTimingEnabled() {
+            return timed();
+        }
+
+        @Override
+        public double getLastGpuMs() {
+            return timer != null ? timer.lastMs() : 0;
+        }
+
+        @Override
+        public double getAverageGpuMs() {
+            return timer != null ? timer.averageMs() : 0;
+        }
+
+        @Override
+        public double getP99GpuMs() {
+            return timer != null ? timer.p99Ms() : 0;
+        }
+
+        @Override
+        public int getSampleCount() {
+            return timer != null ? timer.sampleCount() : 0;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ManagedShaderEffectImpl.this.getPassCount();
+        }
+
+        @Override
+        public double getPassGpuMs(int pass) {
+            return timer != null ? timer.passMs(pass) : 0;
+        }
+
+        @Override
+        public long getTargetBytes() {
+            return chain != null
+                ? ProcessorCache.estimateTargetBytes(chain, GlHelper.getFramebufferWidth(), GlHelper.getFramebufferHeight())
+                : 0;
+        }
+
+        @Override
+        public List<TargetInfo> getTargets() {
+            LoadedChain c = chain;
+            return c != null
+                ? c.formats().describe(c.processor(), GlHelper.getFramebufferWidth(), GlHelper.getFramebufferHeight())
+                : List.of();
+        }
+    }
+
     // ── Uniforms ──────────────────────────────────────────────────────────────
+    // In 1.21.5+ uniforms are baked into per-pass GPU buffers from the post_effect JSON.
+    // On load those buffers are swapped for writable copies (see DynamicUniforms); the
+    // String overloads resolve a handle through a map lookup, so prefer findUniform().
 
-    // ── Uniforms (no-ops in MC 1.21.8+) ──────────────────────────────────────
-    // In 1.21.8 uniforms are baked into GPU UBOs from the post_effect JSON.
-    // Dynamic per-frame uniform setting is no longer supported by the engine.
-    // These methods are retained for API compatibility but have no effect.
+    @Override
+    public ManagedUniform findUniform(String name) {
+        return uniforms.handle(name);
+    }
 
     @Override
-    public void setUniformValue(String name, float value) { /* no-op */ }
+    public void setUniformValue(String name, float value) {
+        uniforms.handle(name).set(value);
+    }
 
     @Override
-    public void setUniformValue(String name, float x, float y) { /* no-op */ }
+    public void setUniformValue(String name, float x, float y) {
+        uniforms.handle(name).set(x, y);
+    }
 
     @Override
-    public void setUniformValue(String name, float x, float y, float z) { /* no-op */ }
+    public void setUniformValue(String name, float x, float y, float z) {
+        uniforms.handle(name).set(x, y, z);
+    }
 
     @Override
-    public void setUniformValue(String name, float x, float y, float z, float w) { /* no-op */ }
+    public void setUniformValue(String name, float x, float y, float z, float w) {
+        uniforms.handle(name).set(x, y, z, w);
+    }
 
     @Override
-    public void setUniformValue(String name, int value) { /* no-op */ }
+    public void setUniformValue(String name, int value) {
+        uniforms.handle(name).set(value);
+    }
 
     // ── Internal ──────────────────────────────────────────────────────────────
 
+    Identifier getLocation() {
+        return location;
+    }
+
+    int getLastRenderFrame() {
+        return lastRenderFrame;
+    }
+
+    /** The live chain; safe to read from any thread. */
+    @Nullable LoadedChain getChain() {
+        return chain;
+    }
+
     /** Package-visible: called by {@link ReloadableShaderEffectManager} on reload. */
     void onReload() {
         // Release existing processor; it will be re-created lazily on next render()
-        release();
+        releaseNow();
     }
 }
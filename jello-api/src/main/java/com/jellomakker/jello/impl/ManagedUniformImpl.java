@@ -0,0 +1,174 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.api.managed.ManagedUniform;
+import org.joml.Matrix4fc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Concrete implementation of {@link ManagedUniform}.
+ *
+ * <p>Remembers the last value set so it can be re-applied when the owning effect
+ * is re-initialized, and holds the resolved (block, offset) slots for the current load.
+ *
+ * <p>Values set off the render thread are parked in {@link #pending}; only the first of a
+ * burst enqueues a command, which applies whatever value is latest when the queue drains.
+ */
+final class ManagedUniformImpl implements ManagedUniform {
+
+    /** A resolved location of this uniform inside one pass's uniform block. */
+    record Slot(DynamicUniforms.BlockBuffer block, int offset, int components, boolean integer) {}
+
+    /** A value set off the render thread, waiting for the next drain. */
+    private record Pending(int count, boolean integer, int intBits, float[] values) {}
+
+    private final String name;
+    private final List<Slot> slots = new ArrayList<>(2);
+
+    private final float[] values = new float[16];
+    private final float[] scratch = new float[16];
+    private int valueCount;      // 0 = never set, 16 = matrix
+    private boolean intValue;
+    private int intBits;
+    private final AtomicReference<Pending> pending = new AtomicReference<>();
+
+    ManagedUniformImpl(String name) {
+        this.name = name;
+    }
+
+    // ── ManagedUniform ────────────────────────────────────────────────────────
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isBound() {
+        return !slots.isEmpty();
+    }
+
+    @Override
+    public void set(float value) {
+        store(1, value, 0f, 0f, 0f);
+    }
+
+    @Override
+    public void set(float x, float y) {
+        store(2, x, y, 0f, 0f);
+    }
+
+    @Override
+    public void set(float x, float y, float z) {
+        store(3, x, y, z, 0f);
+    }
+
+    @Override
+    public void set(float x, float y, float z, float w) {
+        store(4, x, y, z, w);
+    }
+
+    @Override
+    public void set(int value) {
+        if (!commands().isRenderThread()) {
+            defer(new Pending(1, true, value, null));
+            return;
+        }
+        if (valueCount == 1 && intValue && intBits == value) return;
+        valueCount = 1;
+        intValue = true;
+        intBits = value;
+        values[0] = value;
+        apply();
+    }
+
+    @Override
+    public void set(Matrix4fc matrix) {
+        if (!commands().isRenderThread()) {
+            defer(new Pending(16, false, 0, matrix.get(new float[16])));
+            return;
+        }
+        matrix.get(scratch);   // column-major, as std140 lays out mat4
+        storeMatrix(scratch);
+    }
+
+    // ── Internal ──────────────────────────────────────────────────────────────
+
+    private void store(int count, float x, float y, float z, float w) {
+        if (!commands().isRenderThread()) {
+            defer(new Pending(count, false, 0, new float[] {x, y, z, w}));
+            return;
+        }
+        if (valueCount == count && !intValue
+                && values[0] == x && values[1] == y && values[2] == z && values[3] == w) {
+            return;
+        }
+        valueCount = count;
+        intValue = false;
+        values[0] = x;
+        values[1] = y;
+        values[2] = z;
+        values[3] = w;
+        apply();
+    }
+
+    private void storeMatrix(float[] matrix) {
+        if (valueCount == 16 && !intValue && Arrays.equals(values, matrix)) return;
+        valueCount = 16;
+        intValue = false;
+        System.arraycopy(matrix, 0, values, 0, 16);
+        apply();
+    }
+
+    private static RenderCommandQueue commands() {
+        return ReloadableShaderEffectManager.INSTANCE.getCommandQueue();
+    }
+
+    /** Any thread: replaces the parked value, enqueueing an apply only if none was parked. */
+    private void defer(Pending value) {
+        if (pending.getAndSet(value) == null) commands().submit(this::applyPending);
+    }
+
+    /** Render thread: applies the latest parked value. */
+    private void applyPending() {
+        Pending value = pending.getAndSet(null);
+        if (value == null) return;
+        if (value.integer()) {
+            set(value.intBits());
+        } else if (value.count() == 16) {
+            storeMatrix(value.values());
+        } else {
+            float[] v = value.values();
+            store(value.count(), v[0], v[1], v[2], v[3]);
+        }
+    }
+
+    /** Writes the remembered value into every bound slot and marks their blocks dirty. */
+    void apply() {
+        if (valueCount == 0) return;
+        for (int i = 0, n = slots.size(); i < n; i++) {
+            Slot slot = slots.get(i);
+            int count = Math.min(valueCount, slot.components());
+            for (int c = 0; c < count; c++) {
+                int at = slot.offset() + c * 4;
+                if (slot.integer()) {
+                    slot.block().shadow.putInt(at, intValue ? intBits : (int) values[c]);
+                } else {
+                    slot.block().shadow.putFloat(at, values[c]);
+                }
+            }
+            slot.block().dirty = true;
+        }
+    }
+
+    void addSlot(Slot slot) {
+        slots.add(slot);
+    }
+
+    void clearSlots() {
+        slots.clear();
+    }
+}
@@ -0,0 +1,144 @@
+package com.jellomakker.jello.impl;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.jellomakker.jello.api.managed.TargetFormat;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data-flow view of a post-effect chain: which targets each pass reads and writes.
+ * Built from the same JSON vanilla parses, in declaration order.
+ */
+final class PassGraph {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JelloApi");
+
+    /**
+     * One declared pass. {@code inputs} lists the targets of {@code samplers}; texture inputs
+     * only set {@code textureInputs}. {@code computeShader} is the optional compute variant.
+     */
+    record Pass(int index, Identifier fragmentShader, List<Identifier> inputs, Identifier output, boolean hasUniforms,
+                List<Sampler> samplers, boolean textureInputs, @Nullable Identifier computeShader) {}
+
+    /** A target input of a pass, bound as {@code <name>Sampler}. */
+    record Sampler(String name, Identifier target, boolean depth, boolean bilinear) {}
+
+    /**
+     * One declared internal target. {@code screenSized} is false if width or height is fixed;
+     * a screen-sized target is {@code scale} times the framebuffer size in each dimension.
+     */
+    record Target(Identifier id, boolean persistent, boolean screenSized, float scale, TargetFormat format) {
+
+        /** True if both targets always have the same size. */
+        boolean sameSizeAs(Target other) {
+            return screenSized && other.screenSized && scale == other.scale;
+        }
+
+        /** True if the two targets can stand in for each other: same size and format. */
+        boolean interchangeableWith(Target other) {
+            return sameSizeAs(other) && format == other.format;
+        }
+    }
+
+    static final PassGraph EMPTY = new PassGraph(Collections.emptyList(), Collections.emptyMap());
+
+    private final List<Pass> passes;
+    private final Map<Identifier, Target> targets;
+
+    private PassGraph(List<Pass> passes, Map<Identifier, Target> targets) {
+        this.passes = passes;
+        this.targets = targets;
+    }
+
+    List<Pass> passes() {
+        return passes;
+    }
+
+    /** @return the internal target declaration, or {@code null} for external targets such as {@code minecraft:main} */
+    @Nullable Target target(Identifier id) {
+        return targets.get(id);
+    }
+
+    Collection<Target> targets() {
+        return targets.values();
+    }
+
+    /** Declared targets with a {@code scale} other than 1. */
+    List<Target> scaledTargets() {
+        List<Target> scaled = new ArrayList<>(0);
+        for (Target target : targets.values()) {
+            if (target.screenSized() && target.scale() != 1.0f) scaled.add(target);
+        }
+        return scaled;
+    }
+
+    static PassGraph parse(@Nullable JsonObject root) {
+        if (root == null || !root.has("passes")) return EMPTY;
+
+        Map<Identifier, Target> targets = new LinkedHashMap<>();
+        if (root.has("targets")) {
+            for (Map.Entry<String, JsonElement> entry : root.getAsJsonObject("targets").entrySet()) {
+                Identifier id = Identifier.of(entry.getKey());
+                JsonObject decl = entry.getValue().getAsJsonObject();
+                boolean persistent = decl.has("persistent") && decl.get("persistent").getAsBoolean();
+                boolean screenSized = !decl.has("width") && !decl.has("height");
+                float scale = screenSized && decl.has("scale") ? decl.get("scale").getAsFloat() : 1.0f;
+                TargetFormat format = null;
+                if (decl.has("format")) {
+                    String key = decl.get("format").getAsString();
+                    format = TargetFormat.byKey(key);
+                    if (format == null) LOGGER.warn("[JelloApi] Unknown format '{}' for target {}, using rgba8", key, id);
+                }
+                targets.put(id, new Target(id, persistent, screenSized, scale, format != null ? format : TargetFormat.RGBA8));
+            }
+        }
+
+        JsonArray array = root.getAsJsonArray("passes");
+        List<Pass> passes = new ArrayList<>(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            JsonObject pass = array.get(i).getAsJsonObject();
+            List<Identifier> inputs = new ArrayList<>(2);
+            List<Sampler> samplers = new ArrayList<>(2);
+            boolean textureInputs = false;
+            if (pass.has("inputs")) {
+                for (JsonElement input : pass.getAsJsonArray("inputs")) {
+                    JsonObject in = input.getAsJsonObject();
+                    // Texture inputs ("location") are not targets and never alias one.
+                    if (!in.has("target")) {
+                        textureInputs = true;
+                        continue;
+                    }
+                    Identifier target = Identifier.of(in.get("target").getAsString());
+                    inputs.add(target);
+                    samplers.add(new Sampler(in.get("sampler_name").getAsString(), target,
+                        flag(in, "use_depth_buffer"), flag(in, "bilinear")));
+                }
+            }
+            boolean hasUniforms = pass.has("uniforms") && !pass.getAsJsonObject("uniforms").entrySet().isEmpty();
+            passes.add(new Pass(i,
+                Identifier.of(pass.get("fragment_shader").getAsString()),
+                List.copyOf(inputs),
+                Identifier.of(pass.get("output").getAsString()),
+                hasUniforms,
+                List.copyOf(samplers),
+                textureInputs,
+                pass.has("compute_shader") ? Identifier.of(pass.get("compute_shader").getAsString()) : null));
+        }
+        return new PassGraph(List.copyOf(passes), Collections.unmodifiableMap(targets));
+    }
+
+    private static boolean flag(JsonObject object, String key) {
+        return object.has(key) && object.get(key).getAsBoolean();
+    }
+}
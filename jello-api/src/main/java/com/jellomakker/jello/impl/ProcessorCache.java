@@ -0,0 +1,151 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.mixin.PostEffectProcessorAccessor;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of initialized {@link PostEffectProcessor}s that are not currently
+ * owned by any {@link ManagedShaderEffectImpl}.
+ *
+ * <p>{@link ReloadableShaderEffectManager#dispose} parks a warm processor here instead of
+ * closing it; a later {@code manage()} of the same {@link Identifier} adopts it on its first
+ * render without touching the shader loader. Entries are evicted (and closed) least-recently
+ * parked first once either {@link #getMaxEntries() the entry limit} or
+ * {@link #getBudgetBytes() the memory budget} is exceeded.
+ *
+ * <p>Render-thread only.
+ */
+public class ProcessorCache {
+
+    /** Default number of parked processors. */
+    public static final int DEFAULT_MAX_ENTRIES = 8;
+    /** Default budget for persistent targets held by parked processors: 64 MiB. */
+    public static final long DEFAULT_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private record Entry(LoadedChain chain, long bytes) {}
+
+    private final LinkedHashMap<Identifier, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private long budgetBytes = DEFAULT_BUDGET_BYTES;
+    private long usedBytes;
+
+    /**
+     * Parks {@code chain} under {@code id}. A chain already parked under the
+     * same id is closed and replaced.
+     */
+    void put(Identifier id, LoadedChain chain, long bytes) {
+        Entry previous = entries.put(id, new Entry(chain, bytes));
+        if (previous != null) {
+            usedBytes -= previous.bytes;
+            if (previous.chain.processor() != chain.processor()) close(previous);
+        }
+        usedBytes += bytes;
+        trim();
+    }
+
+    /** Removes and returns the chain parked under {@code id}, or {@code null}. */
+    @Nullable LoadedChain take(Identifier id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) return null;
+        usedBytes -= entry.bytes;
+        return entry.chain;
+    }
+
+    /** Closes every parked processor. */
+    void clear() {
+        for (Entry entry : entries.values()) {
+            close(entry);
+        }
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /** Closes least-recently parked processors until at most {@code bytes} are held. */
+    void evictTo(long bytes) {
+        trim(maxEntries, Math.min(bytes, budgetBytes));
+    }
+
+    private void trim() {
+        trim(maxEntries, budgetBytes);
+    }
+
+    private void trim(int entryLimit, long byteLimit) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && (entries.size() > entryLimit || usedBytes > byteLimit)) {
+            Entry eldest = it.next();
+            it.remove();
+            usedBytes -= eldest.bytes;
+            close(eldest);
+        }
+    }
+
+    private static void close(Entry entry) {
+        entry.chain.close();
+        LeakTracker.processorClosed();
+    }
+
+    // ── Configuration ─────────────────────────────────────────────────────────
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        trim();
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = Math.max(0L, budgetBytes);
+        trim();
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // ── Sizing ────────────────────────────────────────────────────────────────
+
+    /**
+     * Estimates the colour memory held by {@code chain}'s persistent targets at the given
+     * screen size, in their allocated formats. Transient targets live in the shared pool.
+     */
+    static long estimatePersistentBytes(LoadedChain chain, int width, int height) {
+        return estimate(chain, width, height, true);
+    }
+
+    /**
+     * Estimates the colour memory held by all of {@code chain}'s targets at the given screen
+     * size. Transient targets are counted although they are pooled.
+     */
+    static long estimateTargetBytes(LoadedChain chain, int width, int height) {
+        return estimate(chain, width, height, false);
+    }
+
+    private static long estimate(LoadedChain chain, int width, int height, boolean persistentOnly) {
+        long bytes = 0;
+        for (Map.Entry<Identifier, PostEffectPipeline.Targets> entry
+                : ((PostEffectProcessorAccessor) chain.processor()).jello$getInternalTargets().entrySet()) {
+            PostEffectPipeline.Targets target = entry.getValue();
+            if (persistentOnly && !target.persistent()) continue;
+            bytes += (long) target.width().orElse(width) * target.height().orElse(height)
+                * chain.formats().bytesPerPixel(entry.getKey(), target.persistent());
+        }
+        return bytes;
+    }
+}
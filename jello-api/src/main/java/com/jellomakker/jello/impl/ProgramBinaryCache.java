@@ -0,0 +1,329 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.JelloApi;
+import com.mojang.blaze3d.pipeline.RenderPipeline;
+import com.mojang.blaze3d.shaders.ShaderType;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.client.gl.CompiledShaderPipeline;
+import net.minecraft.client.gl.ShaderProgram;
+import net.minecraft.client.gl.ShaderSourceGetter;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL20C;
+import org.lwjgl.opengl.GL41C;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persists linked post-effect programs with {@code GL_ARB_get_program_binary}, so a launch
+ * or reload can skip compiling and linking programs this driver has linked before.
+ *
+ * <p>Entries are keyed by a SHA-256 over the shader sources, defines, vertex format, the
+ * GL vendor, renderer and version strings and the jello-api version. Each file repeats the
+ * key and carries a CRC of the binary; an entry that fails either check, or that the driver
+ * rejects, is deleted and the program is compiled normally. Files live under
+ * {@code config/jello-api/program-cache}, capped at {@link #DEFAULT_BUDGET_BYTES} and evicted
+ * least-recently used first.
+ *
+ * <p>Only programs with a {@code post/} fragment shader are cached. Disable with
+ * {@code -Djello.programCache=false}; change the cap with {@code -Djello.programCacheMiB=N}.
+ *
+ * <p>Render-thread only, except the file writes and deletes, which run in order on one
+ * background thread so a delete can never overtake the write of the same entry.
+ */
+public final class ProgramBinaryCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JelloApi");
+
+    public static final ProgramBinaryCache INSTANCE = new ProgramBinaryCache();
+
+    static final boolean ENABLED = !"false".equals(System.getProperty("jello.programCache"));
+    static final long DEFAULT_BUDGET_BYTES = 32L * 1024 * 1024;
+
+    private static final int MAGIC = 0x4A504243;   // "JPBC"
+    private static final int FILE_VERSION = 1;
+    private static final int KEY_BYTES = 32;
+    /** Magic, version, key, binary format, length, CRC. */
+    private static final int HEADER_BYTES = 4 + 4 + KEY_BYTES + 4 + 4 + 8;
+    private static final String SUFFIX = ".bin";
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "Jello program cache IO");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long budgetBytes = Long.getLong("jello.programCacheMiB", DEFAULT_BUDGET_BYTES >> 20) << 20;
+
+    /** Entry sizes by file name, least recently used first. */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private boolean initialized;
+    private boolean supported;
+    @Nullable private Path directory;
+    /** GL strings and jello-api version; the same for every key this session. */
+    private byte[] environment = new byte[0];
+
+    /** Key of the program being compiled by vanilla, to store once it has linked. */
+    private byte @Nullable [] pendingKey;
+    private int hits;
+    private int misses;
+
+    private ProgramBinaryCache() {}
+
+    // ── Compile hooks ─────────────────────────────────────────────────────────
+
+    /**
+     * Called before vanilla compiles {@code pipeline}. Returns a program restored from disk,
+     * or {@code null} to let vanilla compile it; in that case {@link #store} saves the result.
+     */
+    public @Nullable CompiledShaderPipeline load(RenderPipeline pipeline, ShaderSourceGetter sources) {
+        pendingKey = null;
+        if (!ENABLED || !pipeline.getFragmentShader().getPath().startsWith("post/") || !init()) return null;
+        byte[] key = key(pipeline, sources);
+        if (key == null) return null;
+        String name = HexFormat.of().formatHex(key) + SUFFIX;
+
+        if (entries.containsKey(name)) {
+            ShaderProgram program = read(name, key, pipeline);
+            if (program != null) {
+                hits++;
+                program.set(pipeline.getUniforms(), pipeline.getSamplers());
+                return new CompiledShaderPipeline(pipeline, program);
+            }
+            remove(name);
+        }
+        misses++;
+        pendingKey = key;
+        return null;
+    }
+
+    /**
+     * Called before vanilla links {@code program}. Asks the driver to keep a retrievable
+     * binary if it belongs to a pipeline {@link #load} returned {@code null} for; some
+     * drivers return none without the hint.
+     */
+    public void beforeLink(int program) {
+        if (pendingKey != null) {
+            GL41C.glProgramParameteri(program, GL41C.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL11C.GL_TRUE);
+        }
+    }
+
+    /** Called after vanilla compiled a pipeline {@link #load} returned {@code null} for. */
+    public void store(CompiledShaderPipeline compiled) {
+        byte[] key = pendingKey;
+        pendingKey = null;
+        if (key == null || compiled.program() == ShaderProgram.INVALID) return;
+        int program = compiled.program().getGlRef();
+
+        int length = GL20C.glGetProgrami(program, GL41C.GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) {
+            LOGGER.debug("[JelloApi] Driver kept no program binary for {}", compiled.info().getLocation());
+            return;
+        }
+        ByteBuffer file = ByteBuffer.allocate(HEADER_BYTES + length).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer binary = MemoryUtil.memAlloc(length);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer written = stack.mallocInt(1);
+            IntBuffer format = stack.mallocInt(1);
+            GL41C.glGetProgramBinary(program, written, format, binary);
+            int error = GL11C.glGetError();
+            if (error != GL11C.GL_NO_ERROR || written.get(0) != length) {
+                LOGGER.debug("[JelloApi] Could not read program binary for {}: GL error {}, {} of {} bytes",
+                    compiled.info().getLocation(), error, written.get(0), length);
+                return;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(binary.duplicate());
+            file.putInt(MAGIC).putInt(FILE_VERSION).put(key)
+                .putInt(format.get(0)).putInt(length).putLong(crc.getValue())
+                .put(binary);
+        } finally {
+            MemoryUtil.memFree(binary);
+        }
+
+        String name = HexFormat.of().formatHex(key) + SUFFIX;
+        byte[] bytes = file.array();
+        Path path = directory.resolve(name);
+        IO.execute(() -> {
+            try {
+                Path tmp = path.resolveSibling(name + ".tmp");
+                Files.write(tmp, bytes);
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOGGER.debug("[JelloApi] Could not write program binary {}: {}", name, e.getMessage());
+            }
+        });
+        Long previous = entries.put(name, (long) bytes.length);
+        usedBytes += bytes.length - (previous != null ? previous : 0L);
+        trim();
+    }
+
+    // ── Entries ───────────────────────────────────────────────────────────────
+
+    private @Nullable ShaderProgram read(String name, byte[] key, RenderPipeline pipeline) {
+        Path path = directory.resolve(name);
+        ByteBuffer file;
+        try {
+            file = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            return null;
+        }
+        if (file.remaining() < HEADER_BYTES || file.getInt() != MAGIC || file.getInt() != FILE_VERSION) return null;
+        byte[] stored = new byte[KEY_BYTES];
+        file.get(stored);
+        if (!MessageDigest.isEqual(stored, key)) return null;
+        int format = file.getInt();
+        int length = file.getInt();
+        long expectedCrc = file.getLong();
+        if (length != file.remaining()) return null;
+        CRC32 crc = new CRC32();
+        crc.update(file.duplicate());
+        if (crc.getValue() != expectedCrc) return null;
+
+        ByteBuffer binary = MemoryUtil.memAlloc(length);
+        int program = GL20C.glCreateProgram();
+        try {
+            binary.put(file).flip();
+            GL41C.glProgramBinary(program, format, binary);
+        } finally {
+            MemoryUtil.memFree(binary);
+        }
+        // Drivers reject binaries from other driver builds here, even with identical strings.
+        if (GL20C.glGetProgrami(program, GL20C.GL_LINK_STATUS) != GL11C.GL_TRUE) {
+            GL20C.glDeleteProgram(program);
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+            // Only affects eviction order on the next launch.
+        }
+        return new ShaderProgram(program, pipeline.getLocation().toString());
+    }
+
+    private void remove(String name) {
+        Long size = entries.remove(name);
+        if (size != null) usedBytes -= size;
+        Path path = directory.resolve(name);
+        IO.execute(() -> {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // Retried when the entry is next rejected or evicted.
+            }
+        });
+    }
+
+    private void trim() {
+        List<String> evicted = new ArrayList<>();
+        long remaining = usedBytes;
+        for (Map.Entry<String, Long> entry : entries.entrySet()) {
+            if (remaining <= budgetBytes) break;
+            evicted.add(entry.getKey());
+            remaining -= entry.getValue();
+        }
+        for (String name : evicted) remove(name);
+    }
+
+    // ── Setup ─────────────────────────────────────────────────────────────────
+
+    /** Checks driver support and indexes the cache directory on first use. */
+    private boolean init() {
+        if (initialized) return supported;
+        initialized = true;
+        GLCapabilities caps = GL.getCapabilities();
+        if (!caps.OpenGL41 && !caps.GL_ARB_get_program_binary) return false;
+        if (GL11C.glGetInteger(GL41C.GL_NUM_PROGRAM_BINARY_FORMATS) <= 0) return false;
+
+        String version = FabricLoader.getInstance().getModContainer(JelloApi.MOD_ID)
+            .map(c -> c.getMetadata().getVersion().getFriendlyString()).orElse("?");
+        environment = String.join("\n", GL11C.glGetString(GL11C.GL_VENDOR), GL11C.glGetString(GL11C.GL_RENDERER),
+            GL11C.glGetString(GL11C.GL_VERSION), version).getBytes(StandardCharsets.UTF_8);
+
+        directory = FabricLoader.getInstance().getConfigDir().resolve(JelloApi.MOD_ID).resolve("program-cache");
+        try {
+            Files.createDirectories(directory);
+            List<Map.Entry<Path, FileTime>> files = new ArrayList<>();
+            try (Stream<Path> list = Files.list(directory)) {
+                for (Path path : (Iterable<Path>) list::iterator) {
+                    if (path.getFileName().toString().endsWith(SUFFIX)) {
+                        files.add(Map.entry(path, Files.getLastModifiedTime(path)));
+                    }
+                }
+            }
+            files.sort(Map.Entry.comparingByValue());
+            for (Map.Entry<Path, FileTime> file : files) {
+                long size = Files.size(file.getKey());
+                entries.put(file.getKey().getFileName().toString(), size);
+                usedBytes += size;
+            }
+        } catch (IOException e) {
+            LOGGER.warn("[JelloApi] Program binary cache unavailable: {}", e.getMessage());
+            return false;
+        }
+        trim();
+        supported = true;
+        LOGGER.debug("[JelloApi] Program binary cache: {} entries, {} KiB", entries.size(), usedBytes >> 10);
+        return true;
+    }
+
+    private byte @Nullable [] key(RenderPipeline pipeline, ShaderSourceGetter sources) {
+        String vertex = sources.get(pipeline.getVertexShader(), ShaderType.VERTEX);
+        String fragment = sources.get(pipeline.getFragmentShader(), ShaderType.FRAGMENT);
+        if (vertex == null || fragment == null) return null;
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+        digest.update(environment);
+        for (String part : new String[] {
+                vertex, fragment, pipeline.getShaderDefines().toString(), pipeline.getVertexFormat().toString()}) {
+            digest.update((byte) 0);
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+        }
+        return digest.digest();
+    }
+
+    // ── Diagnostics ───────────────────────────────────────────────────────────
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+}
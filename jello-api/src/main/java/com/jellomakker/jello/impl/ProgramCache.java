@@ -0,0 +1,64 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.mixin.PostEffectPassAccessor;
+import com.mojang.blaze3d.pipeline.RenderPipeline;
+import net.minecraft.client.gl.Defines;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.util.Identifier;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares one {@link RenderPipeline} – and therefore one linked GPU program – between every
+ * post pass that uses the same shaders, samplers and uniform blocks.
+ *
+ * <p>Vanilla builds a fresh pipeline object for every pass of every effect, and the device
+ * caches compiled programs per pipeline instance, so two variants of the same effect link
+ * the same program twice. Canonicalizing the pipeline on load removes the duplicate link.
+ * Flushed on renderer reload, when the device drops its compiled pipelines.
+ *
+ * <p>Render-thread only.
+ */
+final class ProgramCache {
+
+    private record Key(Identifier vertex, Identifier fragment, Defines defines,
+                       List<String> samplers, List<RenderPipeline.UniformDescription> uniforms) {
+
+        static Key of(RenderPipeline pipeline) {
+            return new Key(pipeline.getVertexShader(), pipeline.getFragmentShader(), pipeline.getShaderDefines(),
+                pipeline.getSamplers(), pipeline.getUniforms());
+        }
+    }
+
+    private final Map<Key, RenderPipeline> pipelines = new HashMap<>();
+    private int shared;
+
+    /** Points every pass at the canonical pipeline for its program. */
+    void canonicalize(List<PostEffectPass> passes) {
+        for (PostEffectPass pass : passes) {
+            PostEffectPassAccessor accessor = (PostEffectPassAccessor) pass;
+            RenderPipeline pipeline = accessor.jello$getPipeline();
+            RenderPipeline canonical = pipelines.putIfAbsent(Key.of(pipeline), pipeline);
+            if (canonical != null && canonical != pipeline) {
+                accessor.jello$setPipeline(canonical);
+                shared++;
+            }
+        }
+    }
+
+    /** @return how many passes were redirected to an existing program since the last clear */
+    int sharedCount() {
+        return shared;
+    }
+
+    int size() {
+        return pipelines.size();
+    }
+
+    void clear() {
+        pipelines.clear();
+        shared = 0;
+    }
+}
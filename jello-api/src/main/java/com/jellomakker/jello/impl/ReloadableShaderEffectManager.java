@@ -1,36 +1,106 @@
 package com.jellomakker.jello.impl;
 
+import com.jellomakker.jello.api.managed.GpuMemoryStats;
 import com.jellomakker.jello.api.managed.ManagedShaderEffect;
 import com.jellomakker.jello.api.managed.ShaderEffectManager;
+import com.jellomakker.jello.api.managed.TargetPoolStats;
+import com.jellomakker.jello.api.util.GlHelper;
+import com.jellomakker.jello.impl.jfr.ShaderReloadEvent;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.client.util.Handle;
+import net.minecraft.resource.ResourceManager;
 import net.minecraft.util.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
  * Singleton implementation of {@link ShaderEffectManager}.
  *
- * <p>All managed shader effects are released on:
- * <ul>
- *   <li>World renderer reload (resource pack change, F3+T)</li>
- *   <li>Screen resolution change</li>
- * </ul>
- * Released effects are re-initialized lazily on the next {@link ManagedShaderEffect#render(float)} call.
+ * <p>On world renderer reload (resource pack change, F3+T), managed shader effects whose
+ * JSON or GLSL changed are released. They are re-initialized lazily on the next
+ * {@link ManagedShaderEffect#render(float)} call. Unchanged ones are kept as they are.
+ *
+ * <p>A resolution change only re-sizes targets, once per frame however many resize
+ * events arrived.
+ *
+ * <p>{@link #manage}, {@link #dispose} and the effects' release, suspend and uniform calls
+ * may come from any thread: off the render thread they go through a {@link RenderCommandQueue}
+ * drained at the start of every frame.
+ *
+ * <p>Effects opted in with {@link #composite} are run together by an {@link EffectCompositor}
+ * once the render callbacks have returned.
  */
 public class ReloadableShaderEffectManager implements ShaderEffectManager {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger("JelloApi");
+
     /** The global singleton. */
     public static final ReloadableShaderEffectManager INSTANCE = new ReloadableShaderEffectManager();
 
     /**
      * Tracks all live managed effects. WeakHashMap so that callers who truly no
-     * longer reference their effect don't prevent GC (they should call dispose() though).
+     * longer reference their effect don't prevent GC (they should call dispose() though);
+     * {@link LeakTracker} then closes what such an effect still held. Changed only on the
+     * render thread; the monitor is there for {@link #planReload} on the reload worker.
      */
     private final Set<ManagedShaderEffectImpl> managed =
         Collections.newSetFromMap(new WeakHashMap<>());
 
+    /** Calls from other threads, run at the start of the next frame. */
+    private final RenderCommandQueue commands = new RenderCommandQueue();
+
+    /** Transient render targets shared by every managed effect. Render-thread only. */
+    private final RenderTargetPool targetPool = new RenderTargetPool();
+
+    /** Warm processors of disposed effects, reused by later {@link #manage} calls. */
+    private final ProcessorCache processorCache = new ProcessorCache();
+
+    /** Runs composited effects together after the render callbacks. Render-thread only. */
+    private final EffectCompositor compositor = new EffectCompositor();
+
+    /** Canonical pipelines shared between passes with identical programs. Render-thread only. */
+    private final ProgramCache programCache = new ProgramCache();
+
+    /** Fragment shaders known to be plain copies, eligible for {@link ChainRewrite}. */
+    private final Set<Identifier> copyShaders = ConcurrentHashMap.newKeySet();
+    private volatile boolean chainOptimization = true;
+    private volatile boolean prewarmOnReload;
+    private volatile boolean compute = !"false".equals(System.getProperty("jello.compute"));
+
+    /** Processors of unchanged effects, kept open across the reload in progress. */
+    private final Set<PostEffectProcessor> retained = ConcurrentHashMap.newKeySet();
+    /** Set by {@link #planReload} when the shader loader reloaded; a bare renderer reload plans itself. */
+    private volatile boolean reloadPlanned;
+    private volatile int lastReloadSkipped;
+
+    /** Budget for all target memory in bytes; {@code 0} = unlimited. */
+    private volatile long gpuBudgetBytes = Long.getLong("jello.gpuBudgetMiB", 0L) << 20;
+    private volatile int budgetReleases;
+    /** Set once the over-budget warning was logged; cleared when back within budget. */
+    private boolean overBudgetWarned;
+    /** Incremented by {@link #onFrameStart()}; effects record the frame they last rendered. */
+    private int frame;
+
+    /** Bumped on every resolution change; effects re-size their targets once per new value. */
+    private volatile int sizeGeneration;
+    /** The size generation the target pool was last flushed for. Render-thread only. */
+    private int pooledGeneration;
+
     private ReloadableShaderEffectManager() {}
 
     // ── ShaderEffectManager ───────────────────────────────────────────────────
@@ -43,44 +113,389 @@ public class ReloadableShaderEffectManager implements ShaderEffectManager {
     @Override
     public ManagedShaderEffect manage(Identifier location, Consumer<ManagedShaderEffect> initCallback) {
         ManagedShaderEffectImpl effect = new ManagedShaderEffectImpl(location, initCallback);
-        synchronized (managed) {
-            managed.add(effect);
-        }
+        commands.submit(() -> {
+            synchronized (managed) {
+                managed.add(effect);
+            }
+        });
         return effect;
     }
 
+    /**
+     * Stops managing {@code shader}. A healthy initialized processor is parked in the
+     * {@link ProcessorCache} rather than closed, so managing the same location again
+     * (e.g. toggling between blur types) does not reload it.
+     */
     @Override
     public void dispose(ManagedShaderEffect shader) {
-        shader.release();
+        commands.submit(() -> disposeNow(shader));
+    }
+
+    private void disposeNow(ManagedShaderEffect shader) {
+        if (shader instanceof ManagedShaderEffectImpl impl) {
+            impl.leaveComposite();
+            LoadedChain detached = impl.detachChain();
+            if (detached != null) {
+                processorCache.put(impl.getLocation(), detached,
+                    ProcessorCache.estimatePersistentBytes(detached,
+                        GlHelper.getFramebufferWidth(), GlHelper.getFramebufferHeight()));
+            }
+            impl.releaseNow();
+        } else {
+            shader.release();
+        }
         synchronized (managed) {
             managed.remove(shader);
         }
     }
 
+    @Override
+    public void composite(ManagedShaderEffect shader, int priority) {
+        if (!(shader instanceof ManagedShaderEffectImpl impl)) return;
+        commands.submit(() -> impl.joinComposite(priority, compositor.nextOrder()));
+    }
+
+    @Override
+    public void decomposite(ManagedShaderEffect shader) {
+        if (!(shader instanceof ManagedShaderEffectImpl impl)) return;
+        commands.submit(impl::leaveComposite);
+    }
+
+    @Override
+    public void setProcessorCacheLimits(int maxEntries, long budgetBytes) {
+        processorCache.setMaxEntries(maxEntries);
+        processorCache.setBudgetBytes(budgetBytes);
+    }
+
+    @Override
+    public void setPrewarmOnReload(boolean prewarm) {
+        prewarmOnReload = prewarm;
+    }
+
+    @Override
+    public void setGpuMemoryBudget(long budgetBytes) {
+        gpuBudgetBytes = Math.max(0L, budgetBytes);
+    }
+
+    @Override
+    public GpuMemoryStats getGpuMemoryStats() {
+        int width = GlHelper.getFramebufferWidth();
+        int height = GlHelper.getFramebufferHeight();
+        List<GpuMemoryStats.Effect> effects = new ArrayList<>();
+        long effectBytes = 0;
+        synchronized (managed) {
+            for (ManagedShaderEffectImpl effect : managed) {
+                LoadedChain chain = effect.getChain();
+                if (chain == null) continue;
+                long bytes = ProcessorCache.estimatePersistentBytes(chain, width, height);
+                effectBytes += bytes;
+                effects.add(new GpuMemoryStats.Effect(effect.getLocation(), bytes,
+                    Math.max(0, frame - effect.getLastRenderFrame()), effect.isSuspended()));
+            }
+        }
+        effects.sort(Comparator.comparingLong(GpuMemoryStats.Effect::bytes).reversed());
+        return new GpuMemoryStats(effectBytes, targetPool.getAllocatedBytes(), processorCache.getUsedBytes(),
+            gpuBudgetBytes, budgetReleases, List.copyOf(effects));
+    }
+
+    @Override
+    public void registerCopyShader(Identifier fragmentShader) {
+        copyShaders.add(fragmentShader);
+    }
+
+    @Override
+    public void setChainOptimizationEnabled(boolean enabled) {
+        chainOptimization = enabled;
+    }
+
+    public boolean isChainOptimizationEnabled() {
+        return chainOptimization;
+    }
+
+    @Override
+    public void setComputeEnabled(boolean enabled) {
+        compute = enabled;
+    }
+
+    public boolean isComputeEnabled() {
+        return compute;
+    }
+
+    @Override
+    public boolean isComputeAvailable() {
+        return ComputePasses.isAvailable();
+    }
+
+    public Set<Identifier> getCopyShaders() {
+        return copyShaders;
+    }
+
+    @Override
+    public TargetPoolStats getTargetPoolStats() {
+        return targetPool;
+    }
+
+    RenderCommandQueue getCommandQueue() {
+        return commands;
+    }
+
+    EffectCompositor getCompositor() {
+        return compositor;
+    }
+
+    ProgramCache getProgramCache() {
+        return programCache;
+    }
+
+    public ProcessorCache getProcessorCache() {
+        return processorCache;
+    }
+
+    /** The allocator managed effects render with. */
+    public RenderTargetPool getTargetPool() {
+        return targetPool;
+    }
+
     // ── Lifecycle callbacks ───────────────────────────────────────────────────
 
     /**
      * Called when the world renderer (and therefore the ShaderLoader cache) has been reloaded.
-     * All managed effects must be invalidated so they reload from the fresh cache.
+     * Effects whose sources changed are invalidated so they reload from the fresh cache;
+     * those {@link #planReload} retained keep their processors.
      */
     public void onWorldRendererReload() {
+        List<ManagedShaderEffectImpl> reloaded = invalidateAll("reload");
+        if (prewarmOnReload) {
+            for (ManagedShaderEffectImpl effect : reloaded) {
+                effect.initializeAsync();
+            }
+        }
+    }
+
+    /**
+     * Invalidates every managed effect except those whose processor is in {@link #retained}.
+     *
+     * @return the effects that were initialized before being invalidated
+     */
+    private List<ManagedShaderEffectImpl> invalidateAll(String cause) {
+        ShaderReloadEvent event = new ShaderReloadEvent();
+        event.begin();
+        MinecraftClient mc = MinecraftClient.getInstance();
+        if (!reloadPlanned && mc != null) planReload(mc.getResourceManager());
+        reloadPlanned = false;
+        targetPool.clear();
+        processorCache.clear();
+        programCache.clear();
+        int total = 0;
+        int skipped = 0;
+        List<ManagedShaderEffectImpl> invalidated = new ArrayList<>();
         synchronized (managed) {
             for (ManagedShaderEffectImpl effect : managed) {
+                total++;
+                LoadedChain chain = effect.getChain();
+                if (chain != null && retained.contains(chain.processor())) {
+                    skipped++;
+                    continue;
+                }
+                if (chain != null) invalidated.add(effect);
                 effect.onReload();
             }
         }
+        retained.clear();
+        lastReloadSkipped = skipped;
+        LOGGER.debug("[JelloApi] Reload rebuilt {} of {} managed effects, {} unchanged",
+            invalidated.size(), total, skipped);
+        if (event.shouldCommit()) {
+            event.cause = cause;
+            event.managedEffects = total;
+            event.invalidatedEffects = invalidated.size();
+            event.skippedEffects = skipped;
+            event.commit();
+        }
+        return invalidated;
+    }
+
+    /**
+     * Decides which effects survive the coming reload: those whose {@link EffectFingerprint}
+     * against the new resources matches the one they were loaded with. Their processors are
+     * kept open while the shader loader closes its old cache. Called by the shader loader
+     * mixin on the reload worker once the new definitions are prepared.
+     */
+    public void planReload(ResourceManager resources) {
+        List<ManagedShaderEffectImpl> effects;
+        synchronized (managed) {
+            effects = new ArrayList<>(managed);
+        }
+        retained.clear();
+        for (ManagedShaderEffectImpl effect : effects) {
+            LoadedChain chain = effect.getChain();
+            if (chain == null || chain.fingerprint() == null) continue;
+            byte[] now;
+            try {
+                now = EffectFingerprint.compute(resources, EffectJson.read(resources, effect.getLocation()));
+            } catch (IOException e) {
+                continue;
+            }
+            if (Arrays.equals(now, chain.fingerprint())) retained.add(chain.processor());
+        }
+        reloadPlanned = true;
+    }
+
+    /** @return {@code true} if {@code processor} must stay open across the reload in progress */
+    public boolean isRetained(PostEffectProcessor processor) {
+        return retained.contains(processor);
+    }
+
+    /** Lets a retained processor be closed again, e.g. because its effect was released. */
+    void unretain(PostEffectProcessor processor) {
+        retained.remove(processor);
+    }
+
+    /**
+     * Skips {@code pass} if it is a trailing copy into main that the compositor hands off
+     * instead; its source target then stands in for main in {@code handles}.
+     *
+     * @return {@code true} if the pass must not render
+     */
+    public boolean handOff(PostEffectPass pass, Map<Identifier, Handle<Framebuffer>> handles) {
+        return compositor.handOff(pass, handles);
+    }
+
+    @Override
+    public int getLastReloadSkippedCount() {
+        return lastReloadSkipped;
+    }
+
+    @Override
+    public int getLiveGpuObjectCount() {
+        return LeakTracker.liveGpuObjects();
+    }
+
+    @Override
+    public int getLeakedEffectCount() {
+        return LeakTracker.leakCount();
     }
 
     /**
-     * Called when the framebuffer resolution changes.
-     * In MC 1.21.5+ the pipeline targets are screen-sized by default, so this
-     * is equivalent to a full reload – existing processors are invalidated and
-     * will be recreated lazily at the new size.
+     * Called when the framebuffer resolution changes. Dragging a window edge fires this many
+     * times per frame, so it only records that the size is stale: each effect re-sizes its
+     * scaled targets on its next frame and keeps its processor and programs, and
+     * {@link #onFrameStart()} flushes the target pool once per burst.
      *
      * @param width  new framebuffer width
      * @param height new framebuffer height
      */
     public void onResolutionChanged(int width, int height) {
-        onWorldRendererReload();
+        sizeGeneration++;
+    }
+
+    int getSizeGeneration() {
+        return sizeGeneration;
+    }
+
+    /** The current frame number. Render-thread only. */
+    int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Called once per frame before {@link com.jellomakker.jello.api.event.ShaderEffectRenderCallback}
+     * listeners run. Runs commands queued from other threads, closes effects that leaked
+     * since the last frame, drops pooled targets of the old size if the resolution changed,
+     * and enforces the GPU memory budget.
+     */
+    public void onFrameStart() {
+        frame++;
+        drainCommands();
+        LeakTracker.drain();
+        int generation = sizeGeneration;
+        if (generation != pooledGeneration) {
+            pooledGeneration = generation;
+            flushResized();
+        }
+        enforceBudget();
+    }
+
+    private void flushResized() {
+        ShaderReloadEvent event = new ShaderReloadEvent();
+        event.begin();
+        targetPool.clear();
+        if (event.shouldCommit()) {
+            event.cause = "resize";
+            synchronized (managed) {
+                event.managedEffects = managed.size();
+            }
+            event.invalidatedEffects = 0;
+            event.commit();
+        }
+    }
+
+    /**
+     * Frees target memory while the total exceeds {@link #gpuBudgetBytes}: parked processors
+     * first, then effects that did not render in the previous frame, suspended ones first and
+     * then least recently rendered. Pooled targets are left alone – the active effects borrow
+     * them every frame, and idle ones age out on their own.
+     */
+    private void enforceBudget() {
+        long budget = gpuBudgetBytes;
+        if (budget <= 0) return;
+        int width = GlHelper.getFramebufferWidth();
+        int height = GlHelper.getFramebufferHeight();
+        long effectBytes = 0;
+        synchronized (managed) {
+            for (ManagedShaderEffectImpl effect : managed) {
+                LoadedChain chain = effect.getChain();
+                if (chain != null) effectBytes += ProcessorCache.estimatePersistentBytes(chain, width, height);
+            }
+        }
+        long fixedBytes = effectBytes + targetPool.getAllocatedBytes();
+        if (fixedBytes + processorCache.getUsedBytes() <= budget) {
+            overBudgetWarned = false;
+            return;
+        }
+        processorCache.evictTo(Math.max(0L, budget - fixedBytes));
+        long total = fixedBytes + processorCache.getUsedBytes();
+
+        List<ManagedShaderEffectImpl> idle = new ArrayList<>();
+        synchronized (managed) {
+            for (ManagedShaderEffectImpl effect : managed) {
+                if (effect.getChain() != null && effect.getLastRenderFrame() < frame - 1) idle.add(effect);
+            }
+        }
+        idle.sort(Comparator.comparing((ManagedShaderEffectImpl e) -> !e.isSuspended())
+            .thenComparingInt(ManagedShaderEffectImpl::getLastRenderFrame));
+        for (ManagedShaderEffectImpl effect : idle) {
+            if (total <= budget) break;
+            LoadedChain chain = effect.getChain();
+            if (chain == null) continue;
+            total -= ProcessorCache.estimatePersistentBytes(chain, width, height);
+            effect.releaseNow();
+            budgetReleases++;
+            LOGGER.debug("[JelloApi] Released idle shader effect '{}' to stay within the GPU memory budget",
+                effect.getLocation());
+        }
+
+        if (total <= budget) {
+            overBudgetWarned = false;
+        } else if (!overBudgetWarned) {
+            overBudgetWarned = true;
+            LOGGER.warn("[JelloApi] Active shader effects hold {} KiB of render targets, over the {} KiB budget",
+                total >> 10, budget >> 10);
+        }
+    }
+
+    /** Runs the commands queued from other threads. Render thread, or a single driver thread when headless. */
+    void drainCommands() {
+        commands.drain();
+    }
+
+    /**
+     * Called once per frame after {@link com.jellomakker.jello.api.event.ShaderEffectRenderCallback}
+     * listeners have run. Renders the composited effects queued during the frame, then ages
+     * idle pooled targets.
+     */
+    public void onFrameEnd() {
+        compositor.flush(targetPool);
+        targetPool.endFrame();
     }
 }
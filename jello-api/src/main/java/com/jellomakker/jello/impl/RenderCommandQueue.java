@@ -0,0 +1,60 @@
+package com.jellomakker.jello.impl;
+
+import com.mojang.blaze3d.systems.RenderSystem;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Marshals calls on managed effects from any thread onto the render thread.
+ *
+ * <p>Called on the render thread, {@link #submit} runs the command immediately – the
+ * common case costs one thread comparison. Called from any other thread, it appends to a
+ * lock-free queue that {@link #drain()} empties once per frame, just before
+ * {@link com.jellomakker.jello.api.event.ShaderEffectRenderCallback} listeners run.
+ * Commands from one producer run in submission order; there is no ordering between
+ * producers, nor against calls made directly on the render thread.
+ */
+final class RenderCommandQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JelloApi");
+
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    /** The thread inside {@link #drain()}, which counts as the render thread meanwhile. */
+    @Nullable private volatile Thread drainer;
+
+    /** @return {@code true} if commands submitted from the current thread run immediately */
+    boolean isRenderThread() {
+        return RenderSystem.isOnRenderThread() || Thread.currentThread() == drainer;
+    }
+
+    /** Runs {@code command} now on the render thread, else at the start of the next frame. */
+    void submit(Runnable command) {
+        if (isRenderThread()) {
+            command.run();
+        } else {
+            commands.add(command);
+        }
+    }
+
+    /** Runs every queued command. A failing command is logged and does not stop the rest. */
+    void drain() {
+        if (commands.isEmpty()) return;
+        drainer = Thread.currentThread();
+        try {
+            Runnable command;
+            while ((command = commands.poll()) != null) {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("[JelloApi] Queued shader effect command failed", e);
+                }
+            }
+        } finally {
+            drainer = null;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.api.managed.TargetPoolStats;
+import net.minecraft.client.gl.SimpleFramebufferFactory;
+import net.minecraft.client.util.ClosableFactory;
+import net.minecraft.client.util.ObjectAllocator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frame-scoped {@link ObjectAllocator} shared by every {@link ManagedShaderEffectImpl}.
+ *
+ * <p>Pooled objects are keyed by their {@link ClosableFactory}. Vanilla's framebuffer
+ * factory is a record of {@code (width, height, useDepth, clearColor)}, so a target is
+ * only ever reused for an identical resolution and layout. Idle entries that have not
+ * been borrowed for {@link #LIFESPAN} frames are closed; everything is closed on
+ * {@link #clear()}, which the manager calls on resolution change and renderer reload.
+ *
+ * <p>Render-thread only.
+ */
+public class RenderTargetPool implements ObjectAllocator, TargetPoolStats {
+
+    /** Number of frames an idle target survives without being borrowed. */
+    static final int LIFESPAN = 3;
+
+    private final Map<ClosableFactory<?>, List<Entry<?>>> idle = new HashMap<>();
+    private int idleCount;
+    private long allocatedBytes;
+
+    private long hits;
+    private long misses;
+    private int frameMisses;
+    private int lastFrameMisses;
+
+    // ── ObjectAllocator ───────────────────────────────────────────────────────
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T acquire(ClosableFactory<T> factory) {
+        List<Entry<?>> bucket = idle.get(factory);
+        if (bucket != null && !bucket.isEmpty()) {
+            Entry<?> entry = bucket.remove(bucket.size() - 1);
+            idleCount--;
+            hits++;
+            T value = (T) entry.value;
+            factory.prepare(value);
+            return value;
+        }
+        misses++;
+        frameMisses++;
+        allocatedBytes += bytes(factory);
+        T value = factory.create();
+        factory.prepare(value);
+        return value;
+    }
+
+    @Override
+    public <T> void release(ClosableFactory<T> factory, T value) {
+        idle.computeIfAbsent(factory, f -> new ArrayList<>(2)).add(new Entry<>(factory, value));
+        idleCount++;
+    }
+
+    // ── Frame lifecycle ───────────────────────────────────────────────────────
+
+    /**
+     * Ages idle targets by one frame and closes those that outlived {@link #LIFESPAN}.
+     * Called once per frame after all managed effects have rendered.
+     */
+    public void endFrame() {
+        lastFrameMisses = frameMisses;
+        frameMisses = 0;
+        if (idleCount == 0) return;
+
+        Iterator<List<Entry<?>>> buckets = idle.values().iterator();
+        while (buckets.hasNext()) {
+            List<Entry<?>> bucket = buckets.next();
+            for (int i = bucket.size() - 1; i >= 0; i--) {
+                Entry<?> entry = bucket.get(i);
+                if (++entry.idleFrames >= LIFESPAN) {
+                    allocatedBytes -= bytes(entry.factory);
+                    entry.close();
+                    bucket.remove(i);
+                    idleCount--;
+                }
+            }
+            if (bucket.isEmpty()) buckets.remove();
+        }
+    }
+
+    /** Closes every idle target. Targets currently borrowed are unaffected. */
+    public void clear() {
+        for (List<Entry<?>> bucket : idle.values()) {
+            for (Entry<?> entry : bucket) {
+                allocatedBytes -= bytes(entry.factory);
+                entry.close();
+            }
+        }
+        idle.clear();
+        idleCount = 0;
+    }
+
+    // ── TargetPoolStats ───────────────────────────────────────────────────────
+
+    @Override
+    public long getHits() {
+        return hits;
+    }
+
+    @Override
+    public long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public int getLastFrameMisses() {
+        return lastFrameMisses;
+    }
+
+    @Override
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        frameMisses = 0;
+        lastFrameMisses = 0;
+    }
+
+    // ── Internal ──────────────────────────────────────────────────────────────
+
+    /** Colour bytes of what {@code factory} creates; pooled targets are always RGBA8. */
+    private static long bytes(ClosableFactory<?> factory) {
+        return factory instanceof SimpleFramebufferFactory f ? (long) f.width() * f.height() * 4 : 0;
+    }
+
+    private static final class Entry<T> {
+        final ClosableFactory<T> factory;
+        final T value;
+        int idleFrames;
+
+        Entry(ClosableFactory<T> factory, T value) {
+            this.factory = factory;
+            this.value = value;
+        }
+
+        void close() {
+            try {
+                factory.close(value);
+            } catch (Exception ignored) {
+                // Best effort – the GPU device may already be gone.
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.api.managed.TargetFormat;
+import com.jellomakker.jello.api.managed.TargetInfo;
+import com.jellomakker.jello.mixin.PostEffectProcessorAccessor;
+import com.mojang.blaze3d.textures.TextureFormat;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.client.gl.SimpleFramebuffer;
+import net.minecraft.client.gl.SimpleFramebufferFactory;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declared colour formats of one loaded effect's targets.
+ *
+ * <p>Vanilla allocates every post-effect target as RGBA8. Persistent targets are kept in
+ * the processor's framebuffer map and only re-created when their size changes, so before
+ * each render {@link #ensure} replaces any persistent target whose format differs with one
+ * allocated in the resolved format; vanilla then keeps using it.
+ */
+public final class TargetFormats {
+
+    static final TargetFormats NONE = new TargetFormats(new Identifier[0], new TextureFormat[0], Map.of());
+
+    /** Backend format of every jello format; each one is allocatable on every GL backend. */
+    private static final Map<TargetFormat, TextureFormat> BACKEND = new EnumMap<>(Map.of(
+        TargetFormat.RGBA8, TextureFormat.RGBA8,
+        TargetFormat.RED8, TextureFormat.RED8));
+
+    /** Colour format for the framebuffer being constructed by {@link #create}, else {@code null}. */
+    @Nullable private static TextureFormat pending;
+
+    /** Persistent targets to allocate in a non-default format, with that format. */
+    private final Identifier[] ids;
+    private final TextureFormat[] formats;
+    /** Requested and resolved format of every declared target, for reporting. */
+    private final Map<Identifier, TargetFormat[]> declared;
+
+    private TargetFormats(Identifier[] ids, TextureFormat[] formats, Map<Identifier, TargetFormat[]> declared) {
+        this.ids = ids;
+        this.formats = formats;
+        this.declared = declared;
+    }
+
+    /** Resolves the formats declared in {@code graph} for a processor whose targets are final. */
+    static TargetFormats resolve(PassGraph graph, PostEffectProcessor processor) {
+        Map<Identifier, PostEffectPipeline.Targets> targets = ((PostEffectProcessorAccessor) processor).jello$getInternalTargets();
+        Map<Identifier, TargetFormat[]> declared = new HashMap<>();
+        List<Identifier> ids = new ArrayList<>(0);
+        List<TextureFormat> formats = new ArrayList<>(0);
+        for (PassGraph.Target target : graph.targets()) {
+            TargetFormat requested = target.format();
+            if (requested == TargetFormat.RGBA8) continue;
+            declared.put(target.id(), new TargetFormat[] {requested, requested});
+            PostEffectPipeline.Targets t = targets.get(target.id());
+            if (t != null && t.persistent()) {
+                ids.add(target.id());
+                formats.add(BACKEND.get(requested));
+            }
+        }
+        if (declared.isEmpty()) return NONE;
+        return new TargetFormats(ids.toArray(new Identifier[0]), formats.toArray(new TextureFormat[0]), declared);
+    }
+
+    /** Re-allocates persistent targets whose size or format no longer matches. Render thread only. */
+    void ensure(PostEffectProcessor processor, int width, int height) {
+        if (ids.length == 0) return;
+        PostEffectProcessorAccessor accessor = (PostEffectProcessorAccessor) processor;
+        Map<Identifier, PostEffectPipeline.Targets> targets = accessor.jello$getInternalTargets();
+        Map<Identifier, Framebuffer> framebuffers = accessor.jello$getFramebuffers();
+        for (int i = 0; i < ids.length; i++) {
+            PostEffectPipeline.Targets t = targets.get(ids[i]);
+            if (t == null) continue;
+            int w = t.width().orElse(width);
+            int h = t.height().orElse(height);
+            Framebuffer fb = framebuffers.get(ids[i]);
+            if (fb != null && fb.textureWidth == w && fb.textureHeight == h
+                    && fb.getColorAttachment() != null && fb.getColorAttachment().getFormat() == formats[i]) {
+                continue;
+            }
+            if (fb != null) fb.delete();
+            framebuffers.put(ids[i], create(ids[i].toString(), formats[i], w, h, t.clearColor()));
+        }
+    }
+
+    private static Framebuffer create(String name, TextureFormat format, int width, int height, int clearColor) {
+        Framebuffer fb;
+        pending = format;
+        try {
+            fb = new SimpleFramebuffer(name, width, height, true);
+        } finally {
+            pending = null;
+        }
+        new SimpleFramebufferFactory(width, height, true, clearColor).prepare(fb);
+        return fb;
+    }
+
+    /** Called from the framebuffer mixin for every texture a framebuffer allocates. */
+    public static TextureFormat overrideColorFormat(TextureFormat format) {
+        return pending != null && format == TextureFormat.RGBA8 ? pending : format;
+    }
+
+    // ── Reporting ─────────────────────────────────────────────────────────────
+
+    /** Bytes per pixel of {@code target} as allocated; pooled transient targets are always RGBA8. */
+    int bytesPerPixel(Identifier target, boolean persistent) {
+        TargetFormat[] f = persistent ? declared.get(target) : null;
+        return (f != null ? f[1] : TargetFormat.RGBA8).getBytesPerPixel();
+    }
+
+    List<TargetInfo> describe(PostEffectProcessor processor, int width, int height) {
+        Map<Identifier, PostEffectPipeline.Targets> targets = ((PostEffectProcessorAccessor) processor).jello$getInternalTargets();
+        List<TargetInfo> out = new ArrayList<>(targets.size());
+        for (Map.Entry<Identifier, PostEffectPipeline.Targets> entry : targets.entrySet()) {
+            PostEffectPipeline.Targets t = entry.getValue();
+            TargetFormat[] f = declared.getOrDefault(entry.getKey(), new TargetFormat[] {TargetFormat.RGBA8, TargetFormat.RGBA8});
+            // Only persistent targets are re-allocated; pooled ones stay RGBA8.
+            TargetFormat allocated = t.persistent() ? f[1] : TargetFormat.RGBA8;
+            out.add(new TargetInfo(entry.getKey(), t.width().orElse(width), t.height().orElse(height),
+                t.persistent(), f[0], allocated));
+        }
+        return out;
+    }
+}
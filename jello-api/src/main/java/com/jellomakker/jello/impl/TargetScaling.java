@@ -0,0 +1,42 @@
+package com.jellomakker.jello.impl;
+
+import com.jellomakker.jello.mixin.PostEffectProcessorAccessor;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.util.Identifier;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves targets declared with a {@code "scale"} to a fixed size for the current
+ * framebuffer. Vanilla only knows screen-sized and fixed-size targets, so the size is
+ * baked in at load time and re-applied on the first frame after a resolution change.
+ * Idempotent.
+ */
+final class TargetScaling {
+
+    private TargetScaling() {}
+
+    static void apply(PostEffectProcessor processor, PassGraph graph, int width, int height) {
+        List<PassGraph.Target> scaled = graph.scaledTargets();
+        if (scaled.isEmpty()) return;
+        PostEffectProcessorAccessor accessor = (PostEffectProcessorAccessor) processor;
+        Map<Identifier, PostEffectPipeline.Targets> targets = new HashMap<>(accessor.jello$getInternalTargets());
+        for (PassGraph.Target target : scaled) {
+            PostEffectPipeline.Targets t = targets.get(target.id());
+            if (t == null) continue;
+            targets.put(target.id(), new PostEffectPipeline.Targets(
+                Optional.of(scale(width, target.scale())),
+                Optional.of(scale(height, target.scale())),
+                t.persistent(), t.clearColor()));
+        }
+        accessor.jello$setInternalTargets(targets);
+    }
+
+    private static int scale(int size, float scale) {
+        return Math.max(1, Math.round(size * scale));
+    }
+}
@@ -0,0 +1,137 @@
+package com.jellomakker.jello.impl;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * std140 layout of every uniform block declared in a post-effect JSON, resolved once per load.
+ *
+ * <p>Vanilla bakes each pass's {@code "uniforms"} object into an immutable GPU buffer and
+ * discards the member names. This class walks the same JSON (see {@link EffectJson}) and
+ * computes the byte offset of every member so {@link ManagedUniformImpl} can patch values
+ * in place.
+ */
+final class UniformBlockLayout {
+
+    /** Layout of one named block inside one pass. */
+    record Block(int passIndex, String name, int size, List<Member> members) {
+
+        /** Allocates a CPU-side copy of the block filled with the JSON defaults. */
+        ByteBuffer createDefaults() {
+            ByteBuffer buf = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+            for (Member m : members) {
+                for (int i = 0; i < m.defaults.length; i++) {
+                    int at = m.offset + i * 4;
+                    if (m.type.integer) buf.putInt(at, (int) m.defaults[i]);
+                    else buf.putFloat(at, m.defaults[i]);
+                }
+            }
+            return buf;
+        }
+    }
+
+    /** One member of a block. */
+    record Member(String name, Type type, int offset, float[] defaults) {}
+
+    /** Uniform types accepted by vanilla's post-effect codec. */
+    enum Type {
+        FLOAT("float", 1, 4, false),
+        INT("int", 1, 4, true),
+        VEC2("vec2", 2, 8, false),
+        VEC3("vec3", 3, 16, false),
+        IVEC3("ivec3", 3, 16, true),
+        VEC4("vec4", 4, 16, false),
+        MATRIX4X4("matrix4x4", 16, 16, false);
+
+        final String key;
+        final int components;
+        final int alignment;
+        final boolean integer;
+
+        Type(String key, int components, int alignment, boolean integer) {
+            this.key = key;
+            this.components = components;
+            this.alignment = alignment;
+            this.integer = integer;
+        }
+
+        static Type byKey(String key) {
+            for (Type t : values()) {
+                if (t.key.equals(key)) return t;
+            }
+            return null;
+        }
+    }
+
+    static final UniformBlockLayout EMPTY = new UniformBlockLayout(Collections.emptyList());
+
+    private final List<Block> blocks;
+
+    private UniformBlockLayout(List<Block> blocks) {
+        this.blocks = blocks;
+    }
+
+    List<Block> blocks() {
+        return blocks;
+    }
+
+    /** Computes the std140 layout of every block declared in {@code root}. */
+    static UniformBlockLayout parse(@Nullable JsonObject root) {
+        if (root == null || !root.has("passes")) return EMPTY;
+        JsonArray passes = root.getAsJsonArray("passes");
+        List<Block> blocks = new ArrayList<>();
+        for (int passIndex = 0; passIndex < passes.size(); passIndex++) {
+            JsonObject pass = passes.get(passIndex).getAsJsonObject();
+            if (!pass.has("uniforms")) continue;
+            for (Map.Entry<String, JsonElement> block : pass.getAsJsonObject("uniforms").entrySet()) {
+                blocks.add(parseBlock(passIndex, block.getKey(), block.getValue().getAsJsonArray()));
+            }
+        }
+        return blocks.isEmpty() ? EMPTY : new UniformBlockLayout(List.copyOf(blocks));
+    }
+
+    private static Block parseBlock(int passIndex, String name, JsonArray entries) {
+        Map<String, Member> members = new LinkedHashMap<>();
+        int offset = 0;
+        for (JsonElement element : entries) {
+            JsonObject entry = element.getAsJsonObject();
+            Type type = Type.byKey(entry.get("type").getAsString());
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown uniform type '" + entry.get("type").getAsString() + "' in " + name);
+            }
+            offset = align(offset, type.alignment);
+            String memberName = entry.has("name") ? entry.get("name").getAsString() : name + "#" + members.size();
+            members.put(memberName, new Member(memberName, type, offset, readDefaults(entry.get("value"), type)));
+            offset += type.components * 4;
+        }
+        return new Block(passIndex, name, Math.max(16, align(offset, 16)), List.copyOf(members.values()));
+    }
+
+    private static float[] readDefaults(JsonElement value, Type type) {
+        float[] out = new float[type.components];
+        if (value == null) return out;
+        if (value.isJsonArray()) {
+            JsonArray arr = value.getAsJsonArray();
+            for (int i = 0; i < Math.min(arr.size(), out.length); i++) {
+                out[i] = arr.get(i).getAsFloat();
+            }
+        } else {
+            out[0] = value.getAsFloat();
+        }
+        return out;
+    }
+
+    private static int align(int offset, int alignment) {
+        return (offset + alignment - 1) & -alignment;
+    }
+}
@@ -0,0 +1,26 @@
+package com.jellomakker.jello.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One frame's dispatch of {@link com.jellomakker.jello.api.event.ShaderEffectRenderCallback},
+ * covering every listener and the effects they render.
+ */
+@Name("jello.RenderDispatch")
+@Label("Shader Effect Render Dispatch")
+@Category({"Jello API", "Frame"})
+@Description("CPU time spent in ShaderEffectRenderCallback listeners for one frame")
+@StackTrace(false)
+public class RenderDispatchEvent extends jdk.jfr.Event {
+
+    @Label("Tick Delta")
+    public float tickDelta;
+
+    @Label("Pool Allocations")
+    @Description("Render targets newly allocated by the shared pool during this frame")
+    public int poolMisses;
+}
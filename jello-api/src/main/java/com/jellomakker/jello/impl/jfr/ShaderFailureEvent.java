@@ -0,0 +1,36 @@
+package com.jellomakker.jello.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A managed effect failed to load or render. Carries a stack trace, unlike the other events.
+ */
+@Name("jello.ShaderFailure")
+@Label("Shader Effect Failure")
+@Category({"Jello API", "Lifecycle"})
+@Description("A managed post-effect failed to load or render")
+public class ShaderFailureEvent extends jdk.jfr.Event {
+
+    @Label("Effect")
+    public String effect;
+
+    @Label("Phase")
+    @Description("load, render or invalidated")
+    public String phase;
+
+    @Label("Message")
+    public String message;
+
+    /** Emits a failure event if the event type is enabled in the current recording. */
+    public static void emit(Object effect, String phase, String message) {
+        ShaderFailureEvent event = new ShaderFailureEvent();
+        if (!event.isEnabled()) return;
+        event.effect = String.valueOf(effect);
+        event.phase = phase;
+        event.message = message;
+        event.commit();
+    }
+}
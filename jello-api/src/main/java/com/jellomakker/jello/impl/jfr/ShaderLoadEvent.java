@@ -0,0 +1,38 @@
+package com.jellomakker.jello.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Initialization of one managed effect: shader loader lookup, JSON analysis, uniform
+ * buffer setup and pass rewrite – or adoption of a cached processor.
+ */
+@Name("jello.ShaderLoad")
+@Label("Shader Effect Load")
+@Category({"Jello API", "Lifecycle"})
+@Description("Initialization of a managed post-effect")
+@StackTrace(false)
+public class ShaderLoadEvent extends jdk.jfr.Event {
+
+    @Label("Effect")
+    public String effect;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("From Cache")
+    @Description("The processor was adopted from the warm processor cache instead of loaded")
+    public boolean cached;
+
+    @Label("Declared Passes")
+    public int declaredPasses;
+
+    @Label("Executed Passes")
+    public int executedPasses;
+
+    @Label("Failure")
+    public String failure;
+}
@@ -0,0 +1,25 @@
+package com.jellomakker.jello.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Release of a managed effect's processor, either closed or parked in the processor cache.
+ */
+@Name("jello.ShaderRelease")
+@Label("Shader Effect Release")
+@Category({"Jello API", "Lifecycle"})
+@Description("A managed post-effect gave up its processor")
+@StackTrace(false)
+public class ShaderReleaseEvent extends jdk.jfr.Event {
+
+    @Label("Effect")
+    public String effect;
+
+    @Label("Parked")
+    @Description("The processor was returned to the warm processor cache rather than closed")
+    public boolean parked;
+}
@@ -0,0 +1,31 @@
+package com.jellomakker.jello.impl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Fan-out of a world renderer reload or resolution change to every managed effect.
+ */
+@Name("jello.ShaderReload")
+@Label("Shader Effect Reload")
+@Category({"Jello API", "Lifecycle"})
+@Description("Invalidation of managed post-effects after a reload, or target re-sizing after a resize")
+@StackTrace(false)
+public class ShaderReloadEvent extends jdk.jfr.Event {
+
+    @Label("Cause")
+    public String cause;
+
+    @Label("Managed Effects")
+    public int managedEffects;
+
+    @Label("Invalidated Effects")
+    public int invalidatedEffects;
+
+    @Label("Skipped Effects")
+    @Description("Effects kept because their JSON and shader sources were unchanged")
+    public int skippedEffects;
+}
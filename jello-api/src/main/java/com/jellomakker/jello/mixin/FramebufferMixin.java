@@ -0,0 +1,29 @@
+package com.jellomakker.jello.mixin;
+
+import com.jellomakker.jello.impl.TargetFormats;
+import com.mojang.blaze3d.textures.TextureFormat;
+import net.minecraft.client.gl.Framebuffer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.ModifyArg;
+
+/**
+ * Lets jello-api allocate a persistent effect target in a format other than RGBA8. Only
+ * framebuffers created by {@link TargetFormats} are affected; every other allocation keeps
+ * its vanilla format.
+ */
+@Mixin(Framebuffer.class)
+public abstract class FramebufferMixin {
+
+    @ModifyArg(
+        method = "initFbo",
+        at = @At(
+            value = "INVOKE",
+            target = "Lcom/mojang/blaze3d/systems/GpuDevice;createTexture(Ljava/util/function/Supplier;ILcom/mojang/blaze3d/textures/TextureFormat;IIII)Lcom/mojang/blaze3d/textures/GpuTexture;"
+        ),
+        index = 2
+    )
+    private TextureFormat jello$overrideColorFormat(TextureFormat format) {
+        return TargetFormats.overrideColorFormat(format);
+    }
+}
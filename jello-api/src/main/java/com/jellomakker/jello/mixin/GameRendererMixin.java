@@ -1,6 +1,8 @@
 package com.jellomakker.jello.mixin;
 
 import com.jellomakker.jello.api.event.ShaderEffectRenderCallback;
+import com.jellomakker.jello.impl.ReloadableShaderEffectManager;
+import com.jellomakker.jello.impl.jfr.RenderDispatchEvent;
 import net.minecraft.client.render.GameRenderer;
 import net.minecraft.client.render.RenderTickCounter;
 import org.spongepowered.asm.mixin.Mixin;
@@ -31,6 +33,16 @@ public abstract class GameRendererMixin {
         )
     )
     private void jello$hookShaderRender(RenderTickCounter tickCounter, boolean tick, CallbackInfo ci) {
-        ShaderEffectRenderCallback.EVENT.invoker().renderShaderEffects(tickCounter.getTickProgress(tick));
+        float tickDelta = tickCounter.getTickProgress(tick);
+        RenderDispatchEvent event = new RenderDispatchEvent();
+        event.begin();
+        ReloadableShaderEffectManager.INSTANCE.onFrameStart();
+        ShaderEffectRenderCallback.EVENT.invoker().renderShaderEffects(tickDelta);
+        ReloadableShaderEffectManager.INSTANCE.onFrameEnd();
+        if (event.shouldCommit()) {
+            event.tickDelta = tickDelta;
+            event.poolMisses = ReloadableShaderEffectManager.INSTANCE.getTargetPool().getLastFrameMisses();
+            event.commit();
+        }
     }
 }
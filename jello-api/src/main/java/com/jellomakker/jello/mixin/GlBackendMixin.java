@@ -0,0 +1,32 @@
+package com.jellomakker.jello.mixin;
+
+import com.jellomakker.jello.impl.ProgramBinaryCache;
+import com.mojang.blaze3d.pipeline.RenderPipeline;
+import net.minecraft.client.gl.CompiledShaderPipeline;
+import net.minecraft.client.gl.GlBackend;
+import net.minecraft.client.gl.ShaderSourceGetter;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Restores post-effect programs from {@link ProgramBinaryCache} instead of compiling them,
+ * and saves the ones that had to be compiled.
+ */
+@Mixin(GlBackend.class)
+public abstract class GlBackendMixin {
+
+    @Inject(method = "compileRenderPipeline", at = @At("HEAD"), cancellable = true)
+    private void jello$loadProgramBinary(RenderPipeline pipeline, ShaderSourceGetter sources,
+                                         CallbackInfoReturnable<CompiledShaderPipeline> cir) {
+        CompiledShaderPipeline cached = ProgramBinaryCache.INSTANCE.load(pipeline, sources);
+        if (cached != null) cir.setReturnValue(cached);
+    }
+
+    @Inject(method = "compileRenderPipeline", at = @At("RETURN"))
+    private void jello$storeProgramBinary(RenderPipeline pipeline, ShaderSourceGetter sources,
+                                          CallbackInfoReturnable<CompiledShaderPipeline> cir) {
+        ProgramBinaryCache.INSTANCE.store(cir.getReturnValue());
+    }
+}
@@ -0,0 +1,18 @@
+package com.jellomakker.jello.mixin;
+
+import net.minecraft.client.gl.GlCommandEncoder;
+import net.minecraft.client.gl.ShaderProgram;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Lets {@link com.jellomakker.jello.impl.ComputePasses} forget the program the encoder last
+ * bound. The encoder only rebinds a program and its uniform blocks when the program changes,
+ * so after a compute dispatch changed both behind its back the next draw must not skip that.
+ */
+@Mixin(GlCommandEncoder.class)
+public interface GlCommandEncoderAccessor {
+
+    @Accessor("currentProgram")
+    void jello$setCurrentProgram(ShaderProgram program);
+}
@@ -0,0 +1,16 @@
+package com.jellomakker.jello.mixin;
+
+import net.minecraft.client.gl.GlGpuBuffer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Exposes the GL name of a uniform buffer, so {@link com.jellomakker.jello.impl.ComputePasses}
+ * can bind a pass's blocks to its compute program.
+ */
+@Mixin(GlGpuBuffer.class)
+public interface GlGpuBufferAccessor {
+
+    @Accessor("id")
+    int jello$getId();
+}
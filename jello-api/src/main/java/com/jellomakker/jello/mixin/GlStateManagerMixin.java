@@ -0,0 +1,21 @@
+package com.jellomakker.jello.mixin;
+
+import com.jellomakker.jello.impl.ProgramBinaryCache;
+import com.mojang.blaze3d.opengl.GlStateManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Marks programs {@link ProgramBinaryCache} will store as retrievable before they link; the
+ * hint has no effect once a program is linked.
+ */
+@Mixin(GlStateManager.class)
+public abstract class GlStateManagerMixin {
+
+    @Inject(method = "glLinkProgram", at = @At("HEAD"))
+    private static void jello$markRetrievable(int program, CallbackInfo ci) {
+        ProgramBinaryCache.INSTANCE.beforeLink(program);
+    }
+}
@@ -0,0 +1,33 @@
+package com.jellomakker.jello.mixin;
+
+import com.mojang.blaze3d.buffers.GpuBuffer;
+import com.mojang.blaze3d.pipeline.RenderPipeline;
+import net.minecraft.client.gl.PostEffectPass;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Mutable;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.util.Map;
+
+/**
+ * Gives {@link com.jellomakker.jello.impl.ManagedShaderEffectImpl} access to a pass's
+ * uniform buffers, so they can be replaced with writable ones, and to its pipeline, so
+ * identical programs can be shared between passes.
+ */
+@Mixin(PostEffectPass.class)
+public interface PostEffectPassAccessor {
+
+    @Accessor("uniformBuffers")
+    Map<String, GpuBuffer> jello$getUniformBuffers();
+
+    @Mutable
+    @Accessor("uniformBuffers")
+    void jello$setUniformBuffers(Map<String, GpuBuffer> buffers);
+
+    @Accessor("pipeline")
+    RenderPipeline jello$getPipeline();
+
+    @Mutable
+    @Accessor("pipeline")
+    void jello$setPipeline(RenderPipeline pipeline);
+}
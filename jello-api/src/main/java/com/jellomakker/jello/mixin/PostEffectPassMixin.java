@@ -0,0 +1,40 @@
+package com.jellomakker.jello.mixin;
+
+import com.jellomakker.jello.impl.ComputePasses;
+import com.jellomakker.jello.impl.ReloadableShaderEffectManager;
+import com.mojang.blaze3d.buffers.GpuBufferSlice;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.render.FrameGraphBuilder;
+import net.minecraft.client.util.Handle;
+import net.minecraft.util.Identifier;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.Map;
+
+/**
+ * Skips trailing copies the compositor hands off, dispatches passes that have a compiled
+ * compute variant instead of drawing them, and deletes that variant with the pass. Other
+ * passes render as vanilla.
+ */
+@Mixin(PostEffectPass.class)
+public abstract class PostEffectPassMixin {
+
+    @Inject(method = "render", at = @At("HEAD"), cancellable = true)
+    private void jello$renderCompute(FrameGraphBuilder builder, Map<Identifier, Handle<Framebuffer>> handles,
+                                     GpuBufferSlice projection, CallbackInfo ci) {
+        PostEffectPass pass = (PostEffectPass) (Object) this;
+        if (ReloadableShaderEffectManager.INSTANCE.handOff(pass, handles)
+                || ComputePasses.render(pass, builder, handles)) {
+            ci.cancel();
+        }
+    }
+
+    @Inject(method = "close", at = @At("HEAD"))
+    private void jello$releaseCompute(CallbackInfo ci) {
+        ComputePasses.release((PostEffectPass) (Object) this);
+    }
+}
@@ -0,0 +1,38 @@
+package com.jellomakker.jello.mixin;
+
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.gl.PostEffectPass;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.util.Identifier;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Mutable;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the pass list (in JSON declaration order), the internal target declarations
+ * and the persistent framebuffers of a loaded {@link PostEffectProcessor}.
+ */
+@Mixin(PostEffectProcessor.class)
+public interface PostEffectProcessorAccessor {
+
+    @Accessor("passes")
+    List<PostEffectPass> jello$getPasses();
+
+    @Mutable
+    @Accessor("passes")
+    void jello$setPasses(List<PostEffectPass> passes);
+
+    @Accessor("internalTargets")
+    Map<Identifier, PostEffectPipeline.Targets> jello$getInternalTargets();
+
+    @Mutable
+    @Accessor("internalTargets")
+    void jello$setInternalTargets(Map<Identifier, PostEffectPipeline.Targets> targets);
+
+    @Accessor("framebuffers")
+    Map<Identifier, Framebuffer> jello$getFramebuffers();
+}
@@ -0,0 +1,44 @@
+package com.jellomakker.jello.mixin;
+
+import com.jellomakker.jello.impl.GpuTimer;
+import com.jellomakker.jello.impl.ReloadableShaderEffectManager;
+import net.minecraft.client.gl.PostEffectProcessor;
+import net.minecraft.client.render.FrameGraphBuilder;
+import net.minecraft.client.util.ObjectAllocator;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Runs the frame graph of a managed effect with jello-api's GPU timer as its profiler, so
+ * a timestamp can be written after every pass. A plain pass-through when timing is off.
+ *
+ * <p>Also keeps the processors of unchanged effects open when the shader loader closes its
+ * cache during a reload.
+ */
+@Mixin(PostEffectProcessor.class)
+public abstract class PostEffectProcessorMixin {
+
+    @Redirect(
+        method = "render(Lnet/minecraft/client/gl/Framebuffer;Lnet/minecraft/client/util/ObjectAllocator;)V",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/client/render/FrameGraphBuilder;run(Lnet/minecraft/client/util/ObjectAllocator;)V"
+        )
+    )
+    private void jello$profilePasses(FrameGraphBuilder builder, ObjectAllocator allocator) {
+        FrameGraphBuilder.Profiler profiler = GpuTimer.activeProfiler();
+        if (profiler != null) {
+            builder.run(allocator, profiler);
+        } else {
+            builder.run(allocator);
+        }
+    }
+
+    @Inject(method = "close", at = @At("HEAD"), cancellable = true)
+    private void jello$keepRetained(CallbackInfo ci) {
+        if (ReloadableShaderEffectManager.INSTANCE.isRetained((PostEffectProcessor) (Object) this)) ci.cancel();
+    }
+}
@@ -0,0 +1,37 @@
+package com.jellomakker.jello.mixin;
+
+import com.jellomakker.jello.impl.BuiltEffectRegistry;
+import com.jellomakker.jello.impl.ReloadableShaderEffectManager;
+import net.minecraft.client.gl.PostEffectPipeline;
+import net.minecraft.client.gl.ShaderLoader;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.profiler.Profiler;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Merges effects declared with {@link com.jellomakker.jello.api.builder.PostEffectBuilder}
+ * into the post-chain definitions the shader loader prepares on every resource reload, and
+ * lets jello-api decide which managed effects that reload leaves unchanged.
+ */
+@Mixin(ShaderLoader.class)
+public abstract class ShaderLoaderMixin {
+
+    @Inject(method = "prepare", at = @At("RETURN"), cancellable = true)
+    private void jello$addBuiltEffects(ResourceManager resourceManager, Profiler profiler,
+                                       CallbackInfoReturnable<ShaderLoader.Definitions> cir) {
+        ReloadableShaderEffectManager.INSTANCE.planReload(resourceManager);
+        Map<Identifier, PostEffectPipeline> built = BuiltEffectRegistry.decodeAll();
+        if (built.isEmpty()) return;
+        ShaderLoader.Definitions definitions = cir.getReturnValue();
+        Map<Identifier, PostEffectPipeline> merged = new HashMap<>(definitions.postChains());
+        merged.putAll(built);
+        cir.setReturnValue(new ShaderLoader.Definitions(definitions.shaderSources(), Map.copyOf(merged)));
+    }
+}
@@ -1,7 +1,11 @@
 package com.jellomakker.jello.mixin;
 
+import com.jellomakker.jello.api.util.CameraMatrices;
 import com.jellomakker.jello.impl.ReloadableShaderEffectManager;
+import com.llamalad7.mixinextras.sugar.Local;
+import net.minecraft.client.render.Camera;
 import net.minecraft.client.render.WorldRenderer;
+import org.joml.Matrix4f;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -9,13 +13,23 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * Notifies the {@link ReloadableShaderEffectManager} when the world renderer reloads
- * its shaders (resource pack change, F3+T, world join).
+ * its shaders (resource pack change, F3+T, world join), and records the camera matrices
+ * of every world frame for {@link CameraMatrices}.
  */
 @Mixin(WorldRenderer.class)
 public abstract class WorldRendererMixin {
 
     @Inject(method = "reload()V", at = @At("RETURN"))
     private void jello$onWorldRendererReload(CallbackInfo ci) {
+        CameraMatrices.reset();
         ReloadableShaderEffectManager.INSTANCE.onWorldRendererReload();
     }
+
+    @Inject(method = "render", at = @At("HEAD"))
+    private void jello$captureCameraMatrices(CallbackInfo ci,
+                                             @Local(argsOnly = true) Camera camera,
+                                             @Local(argsOnly = true, ordinal = 0) Matrix4f positionMatrix,
+                                             @Local(argsOnly = true, ordinal = 1) Matrix4f projectionMatrix) {
+        CameraMatrices.update(positionMatrix, projectionMatrix, camera.getPos());
+    }
 }
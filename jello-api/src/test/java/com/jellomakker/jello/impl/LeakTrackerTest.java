@@ -0,0 +1,57 @@
+package com.jellomakker.jello.impl;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * An effect collected without {@code dispose()} has what it still owned closed by
+ * {@link LeakTracker#drain()}. The processor stands in for its persistent targets too,
+ * since closing it frees them.
+ */
+class LeakTrackerTest {
+
+    private static final long TIMEOUT_NANOS = 10_000_000_000L;
+
+    @Test
+    void collectedEffectIsClosedAndUncounted() throws InterruptedException {
+        AtomicInteger processorCloses = new AtomicInteger();
+        AtomicInteger timerCloses = new AtomicInteger();
+        int leaksBefore = LeakTracker.leakCount();
+
+        LeakTracker.Handle handle = leak(processorCloses::incrementAndGet, timerCloses::incrementAndGet);
+        assertEquals(2, LeakTracker.liveGpuObjects());
+
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (processorCloses.get() == 0 && System.nanoTime() - deadline < 0) {
+            System.gc();
+            Thread.sleep(10);
+            LeakTracker.drain();
+        }
+
+        assertEquals(1, processorCloses.get());
+        assertEquals(1, timerCloses.get());
+        assertNull(handle.processor);
+        assertNull(handle.timer);
+        assertEquals(0, LeakTracker.liveGpuObjects());
+        assertEquals(leaksBefore + 1, LeakTracker.leakCount());
+
+        LeakTracker.drain();   // a second frame closes nothing twice
+        assertEquals(1, processorCloses.get());
+        assertEquals(1, timerCloses.get());
+    }
+
+    /** Tracks an effect that owns {@code processor} and {@code timer}, and drops it. */
+    private static LeakTracker.Handle leak(AutoCloseable processor, AutoCloseable timer) {
+        LeakTracker.Handle handle = LeakTracker.track(new Object(), Identifier.of("jello", "leaked"));
+        handle.processor = processor;
+        handle.timer = timer;
+        LeakTracker.processorOpened();
+        LeakTracker.timerOpened();
+        return handle;
+    }
+}
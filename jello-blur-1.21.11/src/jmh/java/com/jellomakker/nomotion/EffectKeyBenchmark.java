@@ -0,0 +1,52 @@
+package com.jellomakker.nomotion;
+
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame CPU work in {@link NomotionClient#renderMotionBlur} before the shader loader
+ * is consulted: reading the config and resolving the effect id.
+ *
+ * <p>Run with {@code -prof gc}: every benchmark here must report {@code ≈ 0 B/op}. The
+ * key path is a table lookup, so an allocation showing up is a regression.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EffectKeyBenchmark {
+
+    @Param({"ACCUMULATION", "RADIAL"})
+    public NomotionConfig.BlurType type;
+
+    private final NomotionConfig config = new NomotionConfig();
+
+    @Setup
+    public void setUp() {
+        config.setBlurType(type);
+        config.setStrength(45);
+    }
+
+    @Benchmark
+    public int strength() {
+        return config.getStrength();
+    }
+
+    @Benchmark
+    public NomotionConfig.BlurType blurType() {
+        return config.getBlurType();
+    }
+
+    @Benchmark
+    public Identifier effectId() {
+        return NomotionClient.effectId(config.getBlurType(), config.getStrength());
+    }
+}
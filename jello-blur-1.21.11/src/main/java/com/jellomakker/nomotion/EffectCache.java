@@ -0,0 +1,125 @@
+package com.jellomakker.nomotion;
+
+import net.minecraft.util.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * The processor for the effect id of the last frame, plus a negative cache for the last id
+ * that failed to load or render.
+ *
+ * <p>A hit is a reference comparison, so steady-state frames allocate nothing and never
+ * reach the loader. A failing id is retried after {@link #RETRY_BASE_NANOS}, doubling up
+ * to {@link #RETRY_MAX_NANOS}. Its failure count is only reset by a successful render – a
+ * processor that loads but always throws while rendering keeps backing off. Render-thread
+ * only.
+ *
+ * @param <P> the processor type; {@code PostEffectProcessor} in the client
+ */
+final class EffectCache<P> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("JelloBlur");
+
+    static final long RETRY_BASE_NANOS = 500_000_000L;
+    static final long RETRY_MAX_NANOS = 30_000_000_000L;
+
+    /** Loads a processor; returns {@code null} or throws if it cannot. */
+    private final Function<Identifier, P> loader;
+    private final LongSupplier clock;
+
+    /** Processor for {@link #cachedId}; valid until the shader loader reloads. */
+    private P cachedProcessor = null;
+    private Identifier cachedId = null;
+
+    private Identifier failedId = null;
+    private int failureCount = 0;
+    private long retryAtNanos = 0L;
+
+    EffectCache(Function<Identifier, P> loader, LongSupplier clock) {
+        this.loader = loader;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the processor for {@code effectId}, loading it only when the id changed since
+     * the last frame or the loader reloaded. Ids in back-off after a failure return
+     * {@code null} without asking the loader again.
+     */
+    P resolve(Identifier effectId) {
+        if (effectId == cachedId) {
+            return cachedProcessor;
+        }
+        if (effectId == failedId && clock.getAsLong() - retryAtNanos < 0) {
+            return null;
+        }
+        cachedProcessor = null;
+        cachedId = null;
+        try {
+            P processor = loader.apply(effectId);
+            if (processor == null) {
+                if (recordFailure(effectId)) {
+                    LOGGER.warn("[JelloBlur] Failed to load post-effect: {}", effectId);
+                }
+                return null;
+            }
+            cachedProcessor = processor;
+            cachedId = effectId;
+            return processor;
+        } catch (Exception e) {
+            if (recordFailure(effectId)) {
+                LOGGER.error("[JelloBlur] Error loading post-effect {}: {}", effectId, e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /** The processor for {@code effectId} rendered; ends its back-off, if any. */
+    void rendered(Identifier effectId) {
+        if (effectId == failedId) {
+            failedId = null;
+            failureCount = 0;
+        }
+    }
+
+    /**
+     * The processor for {@code effectId} threw while rendering: drop it and back off.
+     *
+     * @return {@code true} for the first failure of this id, which is the only one worth logging
+     */
+    boolean renderFailed(Identifier effectId) {
+        cachedProcessor = null;
+        cachedId = null;
+        return recordFailure(effectId);
+    }
+
+    /** Drops the cached processor and forgets failures. */
+    void reset() {
+        cachedProcessor = null;
+        cachedId = null;
+        failedId = null;
+        failureCount = 0;
+    }
+
+    /** Nanos, on {@link #clock}, from which {@link #failedId} may be loaded again. */
+    long retryAtNanos() {
+        return retryAtNanos;
+    }
+
+    /**
+     * Backs off exponentially from {@link #RETRY_BASE_NANOS} up to {@link #RETRY_MAX_NANOS}.
+     *
+     * @return {@code true} for the first failure of this id
+     */
+    private boolean recordFailure(Identifier effectId) {
+        if (effectId != failedId) {
+            failedId = effectId;
+            failureCount = 0;
+        }
+        long delay = Math.min(RETRY_MAX_NANOS, RETRY_BASE_NANOS << Math.min(failureCount, 16));
+        retryAtNanos = clock.getAsLong() + delay;
+        return failureCount++ == 0;
+    }
+}
@@ -24,7 +24,14 @@ public class NomotionClient implements ClientModInitializer {
     private static final Logger LOGGER = LoggerFactory.getLogger("JelloBlur");
     private static final NomotionConfig CONFIG = new NomotionConfig();
     private static boolean loggedSuccess = false;
-    private static Identifier lastFailedId = null;
+
+    /** Every effect id, indexed by {@code [blurType.ordinal()][strength index]}; built once. */
+    private static final Identifier[][] EFFECT_IDS = buildEffectIds();
+
+    // ── Frame state (render thread) ───────────────────────────────────────────
+    private static final EffectCache<PostEffectProcessor> EFFECTS = new EffectCache<>(
+            id -> MinecraftClient.getInstance().getShaderLoader().loadPostEffect(id, DefaultFramebufferSet.MAIN_ONLY),
+            System::nanoTime);
 
     @Override
     public void onInitializeClient() {
@@ -37,6 +44,10 @@ public class NomotionClient implements ClientModInitializer {
      * {@link com.jellomakker.nomotion.mixin.GameRendererMixin} after entity
      * outline compositing, each frame.
      *
+     * <p>Steady-state frames allocate nothing and skip the shader loader: the effect id
+     * comes from a precomputed table and {@link EffectCache} reuses the processor until
+     * {@link #onShaderReload()} or a config change selects another id.
+     *
      * @param mc   the Minecraft client instance
      * @param pool the per-frame GPU object allocator from {@code GameRenderer}
      */
@@ -61,33 +72,54 @@ public class NomotionClient implements ClientModInitializer {
             }
         }
 
-        String prefix = CONFIG.getBlurType() == NomotionConfig.BlurType.RADIAL ? "radial" : "blur";
-        Identifier effectId = Identifier.of(MOD_ID, prefix + "_" + CONFIG.getStrength());
+        if (mc.getShaderLoader() == null) {
+            return;
+        }
+        Identifier effectId = effectId(CONFIG.getBlurType(), CONFIG.getStrength());
+        PostEffectProcessor processor = EFFECTS.resolve(effectId);
+        if (processor == null) {
+            return;
+        }
 
         try {
-            if (mc.getShaderLoader() == null) {
-                return;
-            }
-            PostEffectProcessor processor = mc.getShaderLoader().loadPostEffect(
-                    effectId, DefaultFramebufferSet.MAIN_ONLY);
-            if (processor == null) {
-                if (!effectId.equals(lastFailedId)) {
-                    LOGGER.warn("[JelloBlur] Failed to load post-effect: {}", effectId);
-                    lastFailedId = effectId;
-                }
-                return;
-            }
-            lastFailedId = null;
             processor.render(mc.getFramebuffer(), pool != null ? pool : ObjectAllocator.TRIVIAL);
+            EFFECTS.rendered(effectId);
             if (!loggedSuccess) {
                 LOGGER.info("[JelloBlur] Motion blur active: {}", effectId);
                 loggedSuccess = true;
             }
         } catch (Exception e) {
-            if (effectId.equals(lastFailedId)) return;
-            LOGGER.error("[JelloBlur] Error rendering post-effect {}: {}", effectId, e.getMessage());
-            lastFailedId = effectId;
+            if (EFFECTS.renderFailed(effectId)) {
+                LOGGER.error("[JelloBlur] Error rendering post-effect {}: {}", effectId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drops the cached processor and forgets failures. Called by
+     * {@link com.jellomakker.nomotion.mixin.ShaderLoaderMixin} after the shader loader
+     * has closed its old processors, since a new resource pack may also fix a missing effect.
+     */
+    public static void onShaderReload() {
+        EFFECTS.reset();
+    }
+
+    /** The post-effect id for a blur type and (snapped) strength, e.g. {@code nomotion:radial_45}. */
+    static Identifier effectId(NomotionConfig.BlurType type, int strength) {
+        return EFFECT_IDS[type.ordinal()][(strength - NomotionConfig.MIN_STRENGTH) / NomotionConfig.STEP];
+    }
+
+    private static Identifier[][] buildEffectIds() {
+        NomotionConfig.BlurType[] types = NomotionConfig.BlurType.values();
+        int steps = (NomotionConfig.MAX_STRENGTH - NomotionConfig.MIN_STRENGTH) / NomotionConfig.STEP + 1;
+        Identifier[][] ids = new Identifier[types.length][steps];
+        for (NomotionConfig.BlurType type : types) {
+            String prefix = type == NomotionConfig.BlurType.RADIAL ? "radial" : "blur";
+            for (int i = 0; i < steps; i++) {
+                ids[type.ordinal()][i] = Identifier.of(MOD_ID, prefix + "_" + (NomotionConfig.MIN_STRENGTH + i * NomotionConfig.STEP));
+            }
         }
+        return ids;
     }
 
     public static NomotionConfig getConfig() {
@@ -17,8 +17,11 @@ import java.nio.file.Path;
 public class NomotionConfig {
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static final Path CONFIG_PATH =
-        FabricLoader.getInstance().getConfigDir().resolve("nomotion.json");
+
+    /** Resolved lazily so the class can be used without a running loader (e.g. in benchmarks). */
+    private static Path configPath() {
+        return FabricLoader.getInstance().getConfigDir().resolve("nomotion.json");
+    }
 
     /** Strength bounds (percentage, step 5). */
     public static final int MIN_STRENGTH = 5;
@@ -75,8 +78,9 @@ public class NomotionConfig {
     // ── Persistence ───────────────────────────────────────────────────────────
 
     public void load() {
-        if (Files.exists(CONFIG_PATH)) {
-            try (Reader r = Files.newBufferedReader(CONFIG_PATH)) {
+        Path path = configPath();
+        if (Files.exists(path)) {
+            try (Reader r = Files.newBufferedReader(path)) {
                 NomotionConfig loaded = GSON.fromJson(r, NomotionConfig.class);
                 if (loaded != null) {
                     this.enabled         = loaded.enabled;
@@ -94,9 +98,10 @@ public class NomotionConfig {
     }
 
     public void save() {
+        Path path = configPath();
         try {
-            Files.createDirectories(CONFIG_PATH.getParent());
-            try (Writer w = Files.newBufferedWriter(CONFIG_PATH)) {
+            Files.createDirectories(path.getParent());
+            try (Writer w = Files.newBufferedWriter(path)) {
                 GSON.toJson(this, w);
             }
         } catch (IOException e) {
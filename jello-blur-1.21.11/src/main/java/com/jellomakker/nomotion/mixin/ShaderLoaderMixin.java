@@ -0,0 +1,22 @@
+package com.jellomakker.nomotion.mixin;
+
+import com.jellomakker.nomotion.NomotionClient;
+import net.minecraft.client.gl.ShaderLoader;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Tells {@link NomotionClient} that the shader loader has replaced its post-effect
+ * processors, so the cached processor reference must not be rendered again.
+ */
+@Mixin(ShaderLoader.class)
+public abstract class ShaderLoaderMixin {
+
+    @Inject(method = "apply(Lnet/minecraft/client/gl/ShaderLoader$Definitions;Lnet/minecraft/resource/ResourceManager;Lnet/minecraft/util/profiler/Profiler;)V",
+            at = @At("RETURN"))
+    private void nomotion$afterApply(CallbackInfo ci) {
+        NomotionClient.onShaderReload();
+    }
+}
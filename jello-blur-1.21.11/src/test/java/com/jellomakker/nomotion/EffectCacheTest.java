@@ -0,0 +1,96 @@
+package com.jellomakker.nomotion;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The per-frame path of {@link NomotionClient#renderMotionBlur} after the player checks:
+ * resolving the effect id and its cached processor.
+ */
+class EffectCacheTest {
+
+    private static final int FRAMES = 1_000_000;
+    /**
+     * Headroom for the allocation counter's own bookkeeping. Any per-frame allocation is at
+     * least 16 B x {@link #FRAMES}, far above it.
+     */
+    private static final long SLACK_BYTES = 1024;
+
+    @Test
+    void steadyStateFramesAllocateNothing() {
+        NomotionConfig config = new NomotionConfig();
+        config.setBlurType(NomotionConfig.BlurType.RADIAL);
+        config.setStrength(45);
+        Object processor = new Object();
+        EffectCache<Object> cache = new EffectCache<>(id -> processor, System::nanoTime);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        frames(config, cache);   // first load, then let the JIT settle
+        long before = threads.getThreadAllocatedBytes(thread);
+        int rendered = frames(config, cache);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertEquals(FRAMES, rendered);
+        assertTrue(allocated < SLACK_BYTES, "steady-state frames allocated " + allocated + " B");
+    }
+
+    @Test
+    void renderFailuresKeepBackingOffAfterReload() {
+        long base = EffectCache.RETRY_BASE_NANOS;
+        long[] now = {0L};
+        AtomicInteger loads = new AtomicInteger();
+        Object processor = new Object();
+        EffectCache<Object> cache = new EffectCache<>(id -> {
+            loads.incrementAndGet();
+            return processor;
+        }, () -> now[0]);
+        Identifier id = NomotionClient.effectId(NomotionConfig.BlurType.ACCUMULATION, 50);
+
+        assertSame(processor, cache.resolve(id));
+        assertTrue(cache.renderFailed(id), "first failure is logged");
+        assertEquals(base, cache.retryAtNanos() - now[0]);
+
+        now[0] = base;
+        assertSame(processor, cache.resolve(id));
+        assertFalse(cache.renderFailed(id), "a load in between must not reset the failure count");
+        assertEquals(2 * base, cache.retryAtNanos() - now[0]);
+
+        now[0] += base;
+        assertNull(cache.resolve(id));
+        assertEquals(2, loads.get());
+
+        now[0] += base;
+        assertSame(processor, cache.resolve(id));
+        assertFalse(cache.renderFailed(id));
+        assertEquals(4 * base, cache.retryAtNanos() - now[0]);
+
+        // A successful render ends the back-off.
+        now[0] = cache.retryAtNanos();
+        assertSame(processor, cache.resolve(id));
+        cache.rendered(id);
+        assertTrue(cache.renderFailed(id));
+        assertEquals(base, cache.retryAtNanos() - now[0]);
+    }
+
+    private static int frames(NomotionConfig config, EffectCache<Object> cache) {
+        int rendered = 0;
+        for (int i = 0; i < FRAMES; i++) {
+            Identifier id = NomotionClient.effectId(config.getBlurType(), config.getStrength());
+            if (cache.resolve(id) != null) {
+                cache.rendered(id);
+                rendered++;
+            }
+        }
+        return rendered;
+    }
+}
@@ -0,0 +1,232 @@
+package com.jellomakker.nomotion;
+
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL13C;
+import org.lwjgl.opengl.GL15C;
+import org.lwjgl.opengl.GL20C;
+import org.lwjgl.opengl.GL30C;
+import org.lwjgl.opengl.GL31C;
+import org.lwjgl.opengl.GL42C;
+import org.lwjgl.opengl.GL43C;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GPU time of one blur pass through its fragment shader versus its compute variant, at
+ * the resolutions players run. Each operation renders the pass once into a full-size
+ * RGBA8 target and waits for the GPU with {@code glFinish}.
+ *
+ * <p>Uses the shipped {@code .fsh} and {@code .csh} sources with the uniforms jello-api
+ * would bind, in a hidden GL 4.3 core window of its own – no client is started. Needs a
+ * display; on a machine without a GPU, Mesa's llvmpipe works:
+ * {@code LIBGL_ALWAYS_SOFTWARE=1 xvfb-run gradle jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ComputePathBenchmark {
+
+    public enum Path { FRAGMENT, COMPUTE }
+
+    public enum Effect {
+        ACCUMULATION("blur_accumulate", 2),
+        RADIAL("radial_blur", 1);
+
+        final String shader;
+        final int inputs;
+
+        Effect(String shader, int inputs) {
+            this.shader = shader;
+            this.inputs = inputs;
+        }
+    }
+
+    @Param({"1920x1080", "2560x1440", "3840x2160"})
+    public String resolution;
+
+    @Param({"FRAGMENT", "COMPUTE"})
+    public Path path;
+
+    @Param({"ACCUMULATION", "RADIAL"})
+    public Effect effect;
+
+    /** Full-screen triangle, so the fragment path needs no vertex buffer. */
+    private static final String VERTEX_SHADER = """
+            #version 150
+            out vec2 texCoord;
+            void main() {
+                vec2 p = vec2((gl_VertexID << 1) & 2, gl_VertexID & 2);
+                texCoord = p;
+                gl_Position = vec4(p * 2.0 - 1.0, 0.0, 1.0);
+            }
+            """;
+
+    private long window;
+    private int width;
+    private int height;
+    private int program;
+    private int[] inputs;
+    private int output;
+    private int framebuffer;
+    private int vertexArray;
+    private int uniformBuffer;
+
+    @Setup
+    public void setUp() {
+        int x = resolution.indexOf('x');
+        width = Integer.parseInt(resolution.substring(0, x));
+        height = Integer.parseInt(resolution.substring(x + 1));
+
+        if (!GLFW.glfwInit()) throw new IllegalStateException("GLFW failed to initialize");
+        GLFW.glfwDefaultWindowHints();
+        GLFW.glfwWindowHint(GLFW.GLFW_VISIBLE, GLFW.GLFW_FALSE);
+        GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 4);
+        GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 3);
+        GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_PROFILE, GLFW.GLFW_OPENGL_CORE_PROFILE);
+        GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_FORWARD_COMPAT, GLFW.GLFW_TRUE);
+        window = GLFW.glfwCreateWindow(16, 16, "ComputePathBenchmark", MemoryUtil.NULL, MemoryUtil.NULL);
+        if (window == MemoryUtil.NULL) throw new IllegalStateException("No GL 4.3 core context available");
+        GLFW.glfwMakeContextCurrent(window);
+        GLCapabilities caps = GL.createCapabilities();
+        if (!caps.OpenGL43) throw new IllegalStateException("Compute shaders need GL 4.3");
+
+        Random random = new Random(42);
+        inputs = new int[effect.inputs];
+        for (int i = 0; i < inputs.length; i++) {
+            ByteBuffer noise = MemoryUtil.memAlloc(width * height * 4);
+            for (int p = 0; p < noise.capacity(); p++) noise.put(p, (byte) random.nextInt(256));
+            inputs[i] = texture(noise);
+            MemoryUtil.memFree(noise);
+        }
+        output = texture(null);
+
+        if (path == Path.COMPUTE) {
+            program = link(compile(GL43C.GL_COMPUTE_SHADER, source(effect.shader + ".csh")));
+        } else {
+            program = link(compile(GL20C.GL_VERTEX_SHADER, VERTEX_SHADER),
+                compile(GL20C.GL_FRAGMENT_SHADER, source(effect.shader + ".fsh")));
+            framebuffer = GL30C.glGenFramebuffers();
+            GL30C.glBindFramebuffer(GL30C.GL_FRAMEBUFFER, framebuffer);
+            GL30C.glFramebufferTexture2D(GL30C.GL_FRAMEBUFFER, GL30C.GL_COLOR_ATTACHMENT0,
+                GL11C.GL_TEXTURE_2D, output, 0);
+            vertexArray = GL30C.glGenVertexArrays();
+        }
+
+        // std140 BlurParams { float Strength; int Samples; } – accumulation reads only the first.
+        uniformBuffer = GL15C.glGenBuffers();
+        ByteBuffer params = MemoryUtil.memCalloc(16);
+        params.putFloat(0, NomotionConfig.DEFAULT_STRENGTH / 100.0f);
+        params.putInt(4, QualityGovernor.Tier.HIGH.getRadialSamples());
+        GL15C.glBindBuffer(GL31C.GL_UNIFORM_BUFFER, uniformBuffer);
+        GL15C.glBufferData(GL31C.GL_UNIFORM_BUFFER, params, GL15C.GL_STATIC_DRAW);
+        MemoryUtil.memFree(params);
+
+        GL20C.glUseProgram(program);
+        GL31C.glUniformBlockBinding(program, GL31C.glGetUniformBlockIndex(program, "BlurParams"), 0);
+        GL30C.glBindBufferBase(GL31C.GL_UNIFORM_BUFFER, 0, uniformBuffer);
+        String[] samplers = {"InSampler", "PrevFrameSampler"};
+        for (int i = 0; i < inputs.length; i++) {
+            GL13C.glActiveTexture(GL13C.GL_TEXTURE0 + i);
+            GL11C.glBindTexture(GL11C.GL_TEXTURE_2D, inputs[i]);
+            GL20C.glUniform1i(GL20C.glGetUniformLocation(program, samplers[i]), i);
+        }
+        if (path == Path.COMPUTE) {
+            GL20C.glUniform1i(GL20C.glGetUniformLocation(program, "OutImage"), 0);
+            GL42C.glBindImageTexture(0, output, 0, false, 0, GL15C.GL_WRITE_ONLY, GL11C.GL_RGBA8);
+        } else {
+            GL11C.glViewport(0, 0, width, height);
+            GL30C.glBindVertexArray(vertexArray);
+        }
+        GL11C.glFinish();
+    }
+
+    @TearDown
+    public void tearDown() {
+        GL20C.glDeleteProgram(program);
+        GL11C.glDeleteTextures(inputs);
+        GL11C.glDeleteTextures(output);
+        GL15C.glDeleteBuffers(uniformBuffer);
+        if (framebuffer != 0) GL30C.glDeleteFramebuffers(framebuffer);
+        if (vertexArray != 0) GL30C.glDeleteVertexArrays(vertexArray);
+        GL.setCapabilities(null);
+        GLFW.glfwDestroyWindow(window);
+        GLFW.glfwTerminate();
+    }
+
+    @Benchmark
+    public void pass() {
+        if (path == Path.COMPUTE) {
+            GL43C.glDispatchCompute((width + 15) / 16, (height + 15) / 16, 1);
+            GL42C.glMemoryBarrier(GL42C.GL_TEXTURE_FETCH_BARRIER_BIT);
+        } else {
+            GL11C.glDrawArrays(GL11C.GL_TRIANGLES, 0, 3);
+        }
+        GL11C.glFinish();
+    }
+
+    /** RGBA8, bilinear and clamped like the targets the chains sample. */
+    private int texture(ByteBuffer pixels) {
+        int texture = GL11C.glGenTextures();
+        GL11C.glBindTexture(GL11C.GL_TEXTURE_2D, texture);
+        GL42C.glTexStorage2D(GL11C.GL_TEXTURE_2D, 1, GL11C.GL_RGBA8, width, height);
+        if (pixels != null) {
+            GL11C.glTexSubImage2D(GL11C.GL_TEXTURE_2D, 0, 0, 0, width, height,
+                GL11C.GL_RGBA, GL11C.GL_UNSIGNED_BYTE, pixels);
+        }
+        GL11C.glTexParameteri(GL11C.GL_TEXTURE_2D, GL11C.GL_TEXTURE_MIN_FILTER, GL11C.GL_LINEAR);
+        GL11C.glTexParameteri(GL11C.GL_TEXTURE_2D, GL11C.GL_TEXTURE_MAG_FILTER, GL11C.GL_LINEAR);
+        GL11C.glTexParameteri(GL11C.GL_TEXTURE_2D, GL11C.GL_TEXTURE_WRAP_S, GL13C.GL_CLAMP_TO_EDGE);
+        GL11C.glTexParameteri(GL11C.GL_TEXTURE_2D, GL11C.GL_TEXTURE_WRAP_T, GL13C.GL_CLAMP_TO_EDGE);
+        return texture;
+    }
+
+    private static String source(String file) {
+        try (InputStream in = ComputePathBenchmark.class.getResourceAsStream(
+                "/assets/" + NomotionClient.MOD_ID + "/shaders/post/" + file)) {
+            if (in == null) throw new IllegalStateException("Missing shader " + file);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int compile(int type, String source) {
+        int shader = GL20C.glCreateShader(type);
+        GL20C.glShaderSource(shader, source);
+        GL20C.glCompileShader(shader);
+        if (GL20C.glGetShaderi(shader, GL20C.GL_COMPILE_STATUS) != GL11C.GL_TRUE) {
+            throw new IllegalStateException("Shader failed to compile:\n" + GL20C.glGetShaderInfoLog(shader));
+        }
+        return shader;
+    }
+
+    private static int link(int... shaders) {
+        int program = GL20C.glCreateProgram();
+        for (int shader : shaders) GL20C.glAttachShader(program, shader);
+        GL20C.glLinkProgram(program);
+        for (int shader : shaders) GL20C.glDeleteShader(shader);
+        if (GL20C.glGetProgrami(program, GL20C.GL_LINK_STATUS) != GL11C.GL_TRUE) {
+            throw new IllegalStateException("Program failed to link:\n" + GL20C.glGetProgramInfoLog(program));
+        }
+        return program;
+    }
+}
@@ -26,10 +26,18 @@ public class NomotionConfig {
     public static final int DEFAULT_STRENGTH = 50;
     public static final int STEP = 5;
 
+    /** GPU budget bounds for the adaptive quality governor (milliseconds per frame). */
+    public static final float MIN_GPU_BUDGET_MS = 0.25f;
+    public static final float MAX_GPU_BUDGET_MS = 4.0f;
+    public static final float DEFAULT_GPU_BUDGET_MS = 0.5f;
+    public static final float GPU_BUDGET_STEP_MS = 0.25f;
+
     /** Available blur types. */
     public enum BlurType {
         ACCUMULATION("Accumulation"),
-        RADIAL("Radial");
+        RADIAL("Radial"),
+        ITERATIVE("Iterative Radial"),
+        VELOCITY("Velocity");
 
         private final String label;
         BlurType(String label) { this.label = label; }
@@ -41,12 +49,66 @@ public class NomotionConfig {
         }
     }
 
+    /** Resolution the blur is computed and its history stored at, relative to the screen. */
+    public enum RenderScale {
+        FULL("Full", 1.0f, ""),
+        HALF("1/2", 0.5f, "_half"),
+        QUARTER("1/4", 0.25f, "_quarter");
+
+        private final String label;
+        private final float scale;
+        private final String suffix;
+        RenderScale(String label, float scale, String suffix) {
+            this.label = label;
+            this.scale = scale;
+            this.suffix = suffix;
+        }
+        public String getLabel() { return label; }
+        public float getScale() { return scale; }
+        /** Appended to the effect id of each blur type, e.g. {@code blur_half}. */
+        public String getSuffix() { return suffix; }
+
+        public RenderScale next() {
+            RenderScale[] vals = values();
+            return vals[(ordinal() + 1) % vals.length];
+        }
+    }
+
+    /**
+     * Pass count of the {@link BlurType#ITERATIVE iterative radial blur}. Each pass takes four
+     * taps, so {@code N} passes reach {@code 4^N} effective samples for {@code 4N} fetches.
+     */
+    public enum RadialQuality {
+        LOW("Low", 2),
+        MEDIUM("Medium", 3),
+        HIGH("High", 4);
+
+        private final String label;
+        private final int passes;
+        RadialQuality(String label, int passes) {
+            this.label = label;
+            this.passes = passes;
+        }
+        public String getLabel() { return label; }
+        public int getPasses() { return passes; }
+        public int getEffectiveSamples() { return 1 << (2 * passes); }
+
+        public RadialQuality next() {
+            RadialQuality[] vals = values();
+            return vals[(ordinal() + 1) % vals.length];
+        }
+    }
+
     // ── Persisted fields ──────────────────────────────────────────────────────
     private boolean enabled = true;
     private int strength = DEFAULT_STRENGTH;
     private BlurType blurType = BlurType.ACCUMULATION;
     private boolean onlyWhenMoving = false;
     private boolean disableInFluids = false;
+    private RenderScale renderScale = RenderScale.FULL;
+    private RadialQuality radialQuality = RadialQuality.MEDIUM;
+    private boolean adaptiveQuality = false;
+    private float gpuBudgetMs = DEFAULT_GPU_BUDGET_MS;
 
     // ── Accessors ─────────────────────────────────────────────────────────────
 
@@ -72,6 +134,28 @@ public class NomotionConfig {
     public boolean isDisableInFluids() { return disableInFluids; }
     public void setDisableInFluids(boolean value) { this.disableInFluids = value; }
 
+    public RenderScale getRenderScale() { return renderScale != null ? renderScale : RenderScale.FULL; }
+    public void setRenderScale(RenderScale scale) { this.renderScale = scale; }
+
+    public RadialQuality getRadialQuality() { return radialQuality != null ? radialQuality : RadialQuality.MEDIUM; }
+    public void setRadialQuality(RadialQuality quality) { this.radialQuality = quality; }
+
+    public boolean isAdaptiveQuality() { return adaptiveQuality; }
+    public void setAdaptiveQuality(boolean value) { this.adaptiveQuality = value; }
+
+    public float getGpuBudgetMs() {
+        return snapBudget(gpuBudgetMs);
+    }
+
+    public void setGpuBudgetMs(float value) {
+        this.gpuBudgetMs = snapBudget(value);
+    }
+
+    private static float snapBudget(float value) {
+        float snapped = Math.round(value / GPU_BUDGET_STEP_MS) * GPU_BUDGET_STEP_MS;
+        return Math.max(MIN_GPU_BUDGET_MS, Math.min(MAX_GPU_BUDGET_MS, snapped));
+    }
+
     // ── Persistence ───────────────────────────────────────────────────────────
 
     public void load() {
@@ -84,6 +168,10 @@ public class NomotionConfig {
                     this.blurType        = loaded.getBlurType();
                     this.onlyWhenMoving  = loaded.onlyWhenMoving;
                     this.disableInFluids = loaded.disableInFluids;
+                    this.renderScale     = loaded.getRenderScale();
+                    this.radialQuality   = loaded.getRadialQuality();
+                    this.adaptiveQuality = loaded.adaptiveQuality;
+                    this.gpuBudgetMs     = loaded.getGpuBudgetMs();
                 }
             } catch (IOException e) {
                 System.err.println("[NoMotion] Failed to read config: " + e.getMessage());
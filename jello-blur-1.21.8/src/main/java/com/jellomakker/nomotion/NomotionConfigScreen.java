@@ -1,17 +1,21 @@
 package com.jellomakker.nomotion;
 
 import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.client.gui.tooltip.Tooltip;
 import net.minecraft.client.gui.widget.ButtonWidget;
 import net.minecraft.client.gui.widget.SliderWidget;
 import net.minecraft.text.Text;
 
 /**
  * Config screen for NoMotion.  Accessible via Mod Menu.
- * Features: enable/disable, blur type, strength slider, only-when-moving, disable-in-fluids.
+ * Features: enable/disable, blur type, strength slider, render scale, iterative radial
+ * quality, adaptive quality with GPU budget and live tier, only-when-moving,
+ * disable-in-fluids.
  */
 public class NomotionConfigScreen extends Screen {
 
     private final Screen parent;
+    private ButtonWidget qualityStatus;
 
     public NomotionConfigScreen(Screen parent) {
         super(Text.literal("NoMotion Settings"));
@@ -22,8 +26,8 @@ public class NomotionConfigScreen extends Screen {
     protected void init() {
         NomotionConfig config = NomotionClient.getConfig();
         int cx = this.width / 2;
-        int top = this.height / 2 - 62;  // start a bit higher for 5 rows + done
-        int rowH = 26;
+        int top = this.height / 2 - 110;  // start higher for 9 rows + done
+        int rowH = 22;
 
         // ── Row 0: Enabled toggle ─────────────────────────────────────────
         addDrawableChild(ButtonWidget.builder(
@@ -59,29 +63,97 @@ public class NomotionConfigScreen extends Screen {
             }
         });
 
-        // ── Row 3: Only When Moving toggle ────────────────────────────────
+        // ── Row 3: Render Scale cycle ─────────────────────────────────────
+        addDrawableChild(ButtonWidget.builder(
+            renderScaleText(config.getRenderScale()),
+            button -> {
+                config.setRenderScale(config.getRenderScale().next());
+                button.setMessage(renderScaleText(config.getRenderScale()));
+            }
+        ).dimensions(cx - 100, top + rowH * 3, 200, 20).build());
+
+        // ── Row 4: Iterative radial quality cycle ─────────────────────────
+        addDrawableChild(ButtonWidget.builder(
+            radialQualityText(config.getRadialQuality()),
+            button -> {
+                config.setRadialQuality(config.getRadialQuality().next());
+                button.setMessage(radialQualityText(config.getRadialQuality()));
+            }
+        ).dimensions(cx - 100, top + rowH * 4, 200, 20).build());
+
+        // ── Row 5: Adaptive Quality toggle + GPU budget slider ────────────
+        addDrawableChild(ButtonWidget.builder(
+            adaptiveText(config.isAdaptiveQuality()),
+            button -> {
+                config.setAdaptiveQuality(!config.isAdaptiveQuality());
+                button.setMessage(adaptiveText(config.isAdaptiveQuality()));
+                updateQualityStatus();
+            }
+        ).dimensions(cx - 100, top + rowH * 5, 98, 20).build());
+
+        double budgetInitial = (config.getGpuBudgetMs() - NomotionConfig.MIN_GPU_BUDGET_MS)
+                / (NomotionConfig.MAX_GPU_BUDGET_MS - NomotionConfig.MIN_GPU_BUDGET_MS);
+        addDrawableChild(new SliderWidget(cx + 2, top + rowH * 5, 98, 20,
+                budgetText(config.getGpuBudgetMs()), budgetInitial) {
+            @Override
+            protected void updateMessage() {
+                setMessage(budgetText(budgetFromValue(this.value)));
+            }
+
+            @Override
+            protected void applyValue() {
+                config.setGpuBudgetMs(budgetFromValue(this.value));
+            }
+        });
+
+        // ── Row 6: Governor status (read-only) ────────────────────────────
+        qualityStatus = addDrawableChild(ButtonWidget.builder(Text.empty(), button -> {})
+                .dimensions(cx - 100, top + rowH * 6, 200, 20).build());
+        qualityStatus.active = false;
+        updateQualityStatus();
+
+        // ── Row 7: Only When Moving toggle ────────────────────────────────
         addDrawableChild(ButtonWidget.builder(
             movingText(config.isOnlyWhenMoving()),
             button -> {
                 config.setOnlyWhenMoving(!config.isOnlyWhenMoving());
                 button.setMessage(movingText(config.isOnlyWhenMoving()));
             }
-        ).dimensions(cx - 100, top + rowH * 3, 200, 20).build());
+        ).dimensions(cx - 100, top + rowH * 7, 200, 20).build());
 
-        // ── Row 4: Disable in Fluids toggle ───────────────────────────────
+        // ── Row 8: Disable in Fluids toggle ───────────────────────────────
         addDrawableChild(ButtonWidget.builder(
             fluidsText(config.isDisableInFluids()),
             button -> {
                 config.setDisableInFluids(!config.isDisableInFluids());
                 button.setMessage(fluidsText(config.isDisableInFluids()));
             }
-        ).dimensions(cx - 100, top + rowH * 4, 200, 20).build());
+        ).dimensions(cx - 100, top + rowH * 8, 200, 20).build());
 
         // ── Done ──────────────────────────────────────────────────────────
         addDrawableChild(ButtonWidget.builder(
             Text.translatable("gui.done"),
             button -> close()
-        ).dimensions(cx - 100, top + rowH * 5 + 4, 200, 20).build());
+        ).dimensions(cx - 100, top + rowH * 9 + 4, 200, 20).build());
+    }
+
+    @Override
+    public void tick() {
+        super.tick();
+        updateQualityStatus();
+    }
+
+    /** The governor keeps adjusting behind the screen, so its tier is refreshed every tick. */
+    private void updateQualityStatus() {
+        if (qualityStatus == null) return;
+        if (!NomotionClient.getConfig().isAdaptiveQuality()) {
+            qualityStatus.setMessage(Text.literal("Quality: \u00a77Fixed"));
+            qualityStatus.setTooltip(null);
+            return;
+        }
+        QualityGovernor governor = NomotionClient.getGovernor();
+        qualityStatus.setMessage(Text.literal("Quality: \u00a7b" + governor.getTier().getLabel()));
+        qualityStatus.setTooltip(Tooltip.of(Text.literal(governor.getReason())));
     }
 
     @Override
@@ -101,6 +173,15 @@ public class NomotionConfigScreen extends Screen {
         return Math.max(NomotionConfig.MIN_STRENGTH, Math.min(NomotionConfig.MAX_STRENGTH, snapped));
     }
 
+    /** Convert slider 0.0-1.0 value to a snapped GPU budget in milliseconds. */
+    private static float budgetFromValue(double sliderValue) {
+        float raw = (float) (sliderValue
+                * (NomotionConfig.MAX_GPU_BUDGET_MS - NomotionConfig.MIN_GPU_BUDGET_MS)
+                + NomotionConfig.MIN_GPU_BUDGET_MS);
+        float snapped = Math.round(raw / NomotionConfig.GPU_BUDGET_STEP_MS) * NomotionConfig.GPU_BUDGET_STEP_MS;
+        return Math.max(NomotionConfig.MIN_GPU_BUDGET_MS, Math.min(NomotionConfig.MAX_GPU_BUDGET_MS, snapped));
+    }
+
     private static Text enabledText(boolean on) {
         return Text.literal("Motion Blur: " + (on ? "\u00a7aON" : "\u00a7cOFF"));
     }
@@ -113,6 +194,23 @@ public class NomotionConfigScreen extends Screen {
         return Text.literal("Blur Strength: " + pct + "%");
     }
 
+    private static Text renderScaleText(NomotionConfig.RenderScale scale) {
+        return Text.literal("Render Scale: \u00a7b" + scale.getLabel());
+    }
+
+    private static Text radialQualityText(NomotionConfig.RadialQuality quality) {
+        return Text.literal("Iterative Quality: \u00a7b" + quality.getLabel()
+                + " \u00a77(" + quality.getEffectiveSamples() + " samples)");
+    }
+
+    private static Text adaptiveText(boolean on) {
+        return Text.literal("Adaptive: " + (on ? "\u00a7aON" : "\u00a7cOFF"));
+    }
+
+    private static Text budgetText(float ms) {
+        return Text.literal("Budget: " + ms + " ms");
+    }
+
     private static Text movingText(boolean on) {
         return Text.literal("Only When Moving: " + (on ? "\u00a7aON" : "\u00a7cOFF"));
     }
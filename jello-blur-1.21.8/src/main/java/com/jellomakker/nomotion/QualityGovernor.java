@@ -0,0 +1,130 @@
+package com.jellomakker.nomotion;
+
+import com.jellomakker.jello.api.managed.ShaderEffectStats;
+
+/**
+ * Steps the blur through {@link Tier quality tiers} to keep its cost inside the configured
+ * GPU budget.
+ *
+ * <p>The effect's own GPU time, which {@link NomotionClient} has Jello API measure while
+ * adaptive quality is on, is compared to {@link NomotionConfig#getGpuBudgetMs()}. Frame time
+ * is never used: a frame cap, a CPU-bound frame or chunk loading would otherwise degrade a
+ * blur that costs next to nothing. Until the effect has timing samples the tier is held.
+ * Stepping down needs a sustained overrun; stepping up needs the cost to be well under
+ * budget for longer, so the tier does not flap.
+ *
+ * <p>Render-thread only.
+ */
+public class QualityGovernor {
+
+    /** Quality tiers, best first. */
+    public enum Tier {
+        HIGH("High", 16, NomotionConfig.RenderScale.FULL, NomotionConfig.RadialQuality.HIGH),
+        MEDIUM("Medium", 10, NomotionConfig.RenderScale.HALF, NomotionConfig.RadialQuality.MEDIUM),
+        LOW("Low", 6, NomotionConfig.RenderScale.QUARTER, NomotionConfig.RadialQuality.LOW),
+        MINIMAL("Minimal", 4, NomotionConfig.RenderScale.QUARTER, NomotionConfig.RadialQuality.LOW);
+
+        private final String label;
+        private final int radialSamples;
+        private final NomotionConfig.RenderScale maxScale;
+        private final NomotionConfig.RadialQuality maxRadialQuality;
+
+        Tier(String label, int radialSamples, NomotionConfig.RenderScale maxScale,
+             NomotionConfig.RadialQuality maxRadialQuality) {
+            this.label = label;
+            this.radialSamples = radialSamples;
+            this.maxScale = maxScale;
+            this.maxRadialQuality = maxRadialQuality;
+        }
+
+        public String getLabel() { return label; }
+        /** Taps per pixel of the radial blur. */
+        public int getRadialSamples() { return radialSamples; }
+        /** Largest render scale this tier allows. */
+        public NomotionConfig.RenderScale getMaxScale() { return maxScale; }
+        /** Most passes the iterative radial blur may use. */
+        public NomotionConfig.RadialQuality getMaxRadialQuality() { return maxRadialQuality; }
+    }
+
+    /** Frames over budget before stepping down. */
+    private static final int DOWNGRADE_FRAMES = 30;
+    /** Frames comfortably under budget before stepping up. */
+    private static final int UPGRADE_FRAMES = 240;
+    /** Stepping up requires the cost to be below this fraction of the budget. */
+    private static final double UPGRADE_HEADROOM = 0.6;
+    /** Frames to ignore after a tier change while the new effect warms up. */
+    private static final int SETTLE_FRAMES = 20;
+
+    private Tier tier = Tier.HIGH;
+    private String reason = "Within budget";
+    private int over;
+    private int under;
+    private int settle;
+
+    /**
+     * Feeds one frame's measurements.
+     *
+     * @param stats the active effect's stats, or {@code null} if nothing rendered
+     * @param budgetMs the configured GPU budget for the effect
+     */
+    public void update(ShaderEffectStats stats, double budgetMs) {
+        if (settle > 0) {
+            settle--;
+            return;
+        }
+        if (stats == null || !stats.isTimingEnabled() || stats.getSampleCount() == 0) {
+            // No measurement of the blur yet: frame time alone cannot tell what it costs.
+            over = 0;
+            under = 0;
+            return;
+        }
+
+        // The latest sample, not the window average, which would still hold the previous
+        // tier's cost for a while after a step that keeps the same effect.
+        double cost = stats.getLastGpuMs();
+        if (cost > budgetMs) {
+            under = 0;
+            if (++over >= DOWNGRADE_FRAMES && tier.ordinal() < Tier.values().length - 1) {
+                step(1, String.format("Blur %.2f ms > %.2f ms budget", cost, budgetMs));
+            }
+        } else if (cost < budgetMs * UPGRADE_HEADROOM) {
+            over = 0;
+            if (++under >= UPGRADE_FRAMES && tier != Tier.HIGH) {
+                step(-1, String.format("Blur %.2f ms, headroom in %.2f ms budget", cost, budgetMs));
+            }
+        } else {
+            over = 0;
+            under = 0;
+        }
+    }
+
+    private void step(int direction, String why) {
+        tier = Tier.values()[tier.ordinal() + direction];
+        reason = why;
+        over = 0;
+        under = 0;
+        settle = SETTLE_FRAMES;
+    }
+
+    /** Returns to {@link Tier#HIGH}, e.g. when the governor is switched off. */
+    public void reset() {
+        tier = Tier.HIGH;
+        reason = "Within budget";
+        over = 0;
+        under = 0;
+        settle = 0;
+    }
+
+    /** The render scale to use: the configured one, capped by the current tier. */
+    public NomotionConfig.RenderScale effectiveScale(NomotionConfig.RenderScale configured) {
+        return configured.getScale() <= tier.getMaxScale().getScale() ? configured : tier.getMaxScale();
+    }
+
+    /** The iterative radial quality to use: the configured one, capped by the current tier. */
+    public NomotionConfig.RadialQuality effectiveRadialQuality(NomotionConfig.RadialQuality configured) {
+        return configured.compareTo(tier.getMaxRadialQuality()) <= 0 ? configured : tier.getMaxRadialQuality();
+    }
+
+    public Tier getTier() { return tier; }
+    public String getReason() { return reason; }
+}